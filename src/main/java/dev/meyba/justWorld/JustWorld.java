@@ -1,21 +1,26 @@
 package dev.meyba.justWorld;
 
 import dev.meyba.justWorld.command.WorldCommand;
+import dev.meyba.justWorld.generators.GeneratorRegistry;
 import dev.meyba.justWorld.gui.WorldGUI;
 import dev.meyba.justWorld.managers.ConfirmationManager;
 import dev.meyba.justWorld.managers.InventoryManager;
 import dev.meyba.justWorld.managers.PortalManager;
+import dev.meyba.justWorld.managers.PregenManager;
 import dev.meyba.justWorld.managers.WorldManager;
 import dev.meyba.justWorld.utils.ChatUtil;
 import dev.meyba.justWorld.utils.VersionUtil;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public final class JustWorld extends JavaPlugin {
+    private GeneratorRegistry generatorRegistry;
     private WorldManager worldManager;
     private ChatUtil chatUtil;
     private WorldGUI worldGUI;
     private ConfirmationManager confirmationManager;
     private PortalManager portalManager;
+    private PregenManager pregenManager;
+    private InventoryManager inventoryManager;
 
     @Override
     public void onEnable() {
@@ -25,6 +30,8 @@ public final class JustWorld extends JavaPlugin {
 
         chatUtil = new ChatUtil(this);
 
+        generatorRegistry = new GeneratorRegistry(this);
+
         worldManager = new WorldManager(this);
         getLogger().info("WorldManager initialized");
 
@@ -35,7 +42,10 @@ public final class JustWorld extends JavaPlugin {
         getServer().getPluginManager().registerEvents(portalManager, this);
         getLogger().info("PortalManager initialized");
 
-        InventoryManager inventoryManager = new InventoryManager(this);
+        pregenManager = new PregenManager(this);
+        getLogger().info("PregenManager initialized");
+
+        inventoryManager = new InventoryManager(this);
         getServer().getPluginManager().registerEvents(inventoryManager, this);
         getLogger().info("InventoryManager initialized");
 
@@ -55,6 +65,7 @@ public final class JustWorld extends JavaPlugin {
         worldManager.loadAllWorlds().thenRun(() -> {
             long loadTime = System.currentTimeMillis() - startTime;
             getLogger().info("JustWorld has been enabled in " + loadTime + "ms!");
+            pregenManager.resumeJobs();
         });
     }
 
@@ -63,12 +74,25 @@ public final class JustWorld extends JavaPlugin {
         if (confirmationManager != null) {
             confirmationManager.shutdown();
         }
+        if (pregenManager != null) {
+            pregenManager.shutdown();
+        }
+        if (portalManager != null) {
+            portalManager.shutdown();
+        }
+        if (inventoryManager != null) {
+            inventoryManager.shutdown();
+        }
         if (worldManager != null) {
             worldManager.shutdown();
         }
         getLogger().info("JustWorld has been disabled!");
     }
 
+    public GeneratorRegistry getGeneratorRegistry() {
+        return generatorRegistry;
+    }
+
     public WorldManager getWorldManager() {
         return worldManager;
     }
@@ -88,4 +112,12 @@ public final class JustWorld extends JavaPlugin {
     public PortalManager getPortalManager() {
         return portalManager;
     }
+
+    public PregenManager getPregenManager() {
+        return pregenManager;
+    }
+
+    public InventoryManager getInventoryManager() {
+        return inventoryManager;
+    }
 }
\ No newline at end of file
@@ -1,37 +1,48 @@
 package dev.meyba.justWorld.command;
 
 import dev.meyba.justWorld.JustWorld;
+import dev.meyba.justWorld.generators.FlatWorldGenerator;
+import dev.meyba.justWorld.generators.IslandStructure;
+import dev.meyba.justWorld.generators.SingleBiomeProvider;
 import dev.meyba.justWorld.managers.ConfirmationManager;
+import dev.meyba.justWorld.managers.InventoryManager;
 import dev.meyba.justWorld.managers.PortalManager;
+import dev.meyba.justWorld.managers.PregenManager;
+import dev.meyba.justWorld.other.PlayerSnapshot;
+import dev.meyba.justWorld.other.PortalRegion;
+import dev.meyba.justWorld.other.PortalRegionIndex;
+import dev.meyba.justWorld.other.PregenArea;
+import dev.meyba.justWorld.other.PregenStats;
+import dev.meyba.justWorld.other.PregenTask;
+import dev.meyba.justWorld.other.TimingStats;
 import dev.meyba.justWorld.other.WorldData;
 import dev.meyba.justWorld.utils.ChatUtil;
+import dev.meyba.justWorld.utils.InventoryBenchmark;
 import org.bukkit.ChatColor;
 import org.bukkit.Location;
+import org.bukkit.PortalType;
 import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
-import org.bukkit.scheduler.BukkitTask;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class WorldCommand implements CommandExecutor, TabCompleter {
     private final JustWorld plugin;
     private final ChatUtil msg;
-    private final Map<String, BukkitTask> pregenTasks;
 
     public WorldCommand(JustWorld plugin) {
         this.plugin = plugin;
         this.msg = plugin.getMessageUtil();
-        this.pregenTasks = new ConcurrentHashMap<>();
     }
 
     @Override
@@ -60,6 +71,7 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
             case "cancel" -> handleCancel(sender);
             case "pregen", "pregenerate" -> handlePregen(sender, args);
             case "portal" -> handlePortal(sender, args);
+            case "inventory" -> handleInventory(sender, args);
             default -> sendHelp(sender);
         }
 
@@ -75,46 +87,58 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
 
         String worldName = args[1];
         World.Environment environment = World.Environment.NORMAL;
-        WorldData.GeneratorType generatorType = WorldData.GeneratorType.DEFAULT;
+        String generator = null;
         long seed = 0;
 
         if (args.length >= 3) {
             String type = args[2].toUpperCase();
 
-            if (type.equals("VOID") || type.equals("FLAT")) {
-                try {
-                    generatorType = WorldData.GeneratorType.valueOf(type);
-                } catch (IllegalArgumentException e) {
-                    msg.send(sender, "invalid-environment");
-                    return;
-                }
-            } else {
-                try {
-                    environment = switch (type) {
-                        case "NORMAL" -> World.Environment.NORMAL;
-                        case "NETHER" -> World.Environment.NETHER;
-                        case "END" -> World.Environment.THE_END;
-                        default -> throw new IllegalArgumentException("Invalid environment");
-                    };
-                } catch (IllegalArgumentException e) {
-                    msg.send(sender, "invalid-environment");
-                    return;
+            switch (type) {
+                case "NORMAL" -> environment = World.Environment.NORMAL;
+                case "NETHER" -> environment = World.Environment.NETHER;
+                case "END" -> environment = World.Environment.THE_END;
+                default -> {
+                    if (!plugin.getGeneratorRegistry().isAvailable(args[2])) {
+                        msg.send(sender, "invalid-environment");
+                        return;
+                    }
+                    generator = args[2];
                 }
             }
         }
 
-        if (args.length >= 4) {
+        String settings = null;
+        String biome = null;
+        for (int i = 3; i < args.length; i++) {
+            String option = args[i].toLowerCase();
+            if (option.startsWith("preset:") || option.startsWith("schematic:") || option.startsWith("settings:")) {
+                settings = args[i].substring(args[i].indexOf(':') + 1);
+                continue;
+            }
+            if (option.startsWith("biome:")) {
+                biome = option.substring("biome:".length());
+                continue;
+            }
+
             try {
-                seed = Long.parseLong(args[3]);
+                seed = Long.parseLong(args[i]);
             } catch (NumberFormatException e) {
                 msg.send(sender, "invalid-seed");
                 return;
             }
         }
 
-        String messageKey = switch (generatorType) {
+        String[] resolved = resolveGeneratorOptions(sender, generator, settings, biome);
+        if (resolved == null) {
+            return;
+        }
+
+        WorldData.GeneratorType generatorType = WorldData.GeneratorType.fromId(generator);
+        String messageKey = generatorType == null ? "creating-world" : switch (generatorType) {
             case VOID -> "creating-void";
             case FLAT -> "creating-flat";
+            case ISLAND -> "creating-island";
+            case TERRAIN -> "creating-terrain";
             default -> "creating-world";
         };
         msg.send(sender, messageKey, "{world}", worldName);
@@ -122,7 +146,9 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         WorldData worldData = WorldData.builder(worldName)
                 .environment(environment)
                 .seed(seed)
-                .generatorType(generatorType)
+                .generator(generator)
+                .generatorSettings(resolved[0])
+                .biome(resolved[1])
                 .build();
 
         plugin.getWorldManager().createWorld(worldData).thenAccept(result -> {
@@ -137,6 +163,128 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         });
     }
 
+    // Applies config defaults for built-in generators and validates settings and biome.
+    // Returns {settings, biome}, or null after an error message was sent.
+    private String[] resolveGeneratorOptions(CommandSender sender, String generator, String settings, String biome) {
+        WorldData.GeneratorType generatorType = WorldData.GeneratorType.fromId(generator);
+
+        if (generatorType == WorldData.GeneratorType.FLAT) {
+            if (settings == null) {
+                settings = plugin.getConfig().getString("generators.flat-layers", FlatWorldGenerator.DEFAULT_LAYERS);
+                if (!FlatWorldGenerator.isValidPreset(settings)) {
+                    plugin.getLogger().warning("Invalid generators.flat-layers in config.yml, using the default layers");
+                    settings = FlatWorldGenerator.DEFAULT_LAYERS;
+                }
+            } else {
+                settings = resolveFlatPreset(settings);
+                if (!FlatWorldGenerator.isValidPreset(settings)) {
+                    msg.send(sender, "invalid-flat-preset");
+                    return null;
+                }
+            }
+        } else if (generatorType == WorldData.GeneratorType.ISLAND) {
+            if (settings == null) {
+                settings = plugin.getConfig().getString("generators.island-schematic", "islands/island.nbt");
+            }
+            if (!IslandStructure.exists(settings)) {
+                msg.send(sender, "invalid-schematic", "{file}", settings);
+                return null;
+            }
+        }
+
+        if (biome != null) {
+            if (generatorType == WorldData.GeneratorType.DEFAULT || !SingleBiomeProvider.isValid(biome)) {
+                msg.send(sender, "invalid-biome");
+                return null;
+            }
+        } else if (generatorType != null && generatorType != WorldData.GeneratorType.DEFAULT) {
+            biome = plugin.getConfig().getString("generators." + generatorType.getId() + "-biome", "vanilla");
+            if (!SingleBiomeProvider.isValid(biome)) {
+                plugin.getLogger().warning("Invalid generator biome " + biome + " in config.yml, using vanilla biomes");
+                biome = "vanilla";
+            }
+        }
+
+        return new String[]{settings, biome};
+    }
+
+    // Named presets from generators.flat-presets, anything else is taken as a layer list
+    private String resolveFlatPreset(String value) {
+        String named = plugin.getConfig().getString("generators.flat-presets." + value.toLowerCase());
+        return named != null ? named : value;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "?";
+        }
+        return bytes < 1024 ? bytes + "B" : String.format("%.1fKB", bytes / 1024.0);
+    }
+
+    private void handleInventory(CommandSender sender, String[] args) {
+        if (args.length >= 2 && args[1].equalsIgnoreCase("benchmark")) {
+            handleInventoryBenchmark(sender, args);
+            return;
+        }
+        if (args.length < 2 || !args[1].equalsIgnoreCase("stats")) {
+            msg.send(sender, "usage-inventory");
+            return;
+        }
+
+        InventoryManager inventoryManager = plugin.getInventoryManager();
+        msg.send(sender, "inventory-stats-header");
+        sendTimings(sender, "ᴄᴀᴘᴛᴜʀᴇ", inventoryManager.getCaptureTimings());
+        sendTimings(sender, "ꜱᴀᴠᴇ", inventoryManager.getSaveTimings());
+        sendTimings(sender, "ʟᴏᴀᴅ", inventoryManager.getLoadTimings());
+        sendTimings(sender, "ᴀᴘᴘʟʏ", inventoryManager.getApplyTimings());
+        msg.send(sender, "inventory-cache",
+                "{count}", String.valueOf(inventoryManager.getCache().size()),
+                "{dirty}", String.valueOf(inventoryManager.getCache().dirtyCount()));
+    }
+
+    // Serializes the sender's own inventory, captured here on the main thread, the timed runs happen async
+    private void handleInventoryBenchmark(CommandSender sender, String[] args) {
+        if (!(sender instanceof Player player)) {
+            msg.send(sender, "player-only");
+            return;
+        }
+
+        int iterations = 1000;
+        if (args.length >= 3) {
+            try {
+                iterations = Math.max(1, Math.min(100_000, Integer.parseInt(args[2])));
+            } catch (NumberFormatException e) {
+                msg.send(sender, "usage-inventory");
+                return;
+            }
+        }
+
+        PlayerSnapshot snapshot = PlayerSnapshot.capture(player);
+        int iterationCount = iterations;
+        msg.send(sender, "inventory-benchmark-started", "{count}", String.valueOf(iterationCount));
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                for (InventoryBenchmark.Result result : InventoryBenchmark.run(snapshot, iterationCount)) {
+                    msg.send(sender, "inventory-benchmark-result",
+                            "{type}", result.format(),
+                            "{bytes}", formatBytes(result.bytes()),
+                            "{write}", String.format("%.1f", result.getWriteMicros()),
+                            "{read}", String.format("%.1f", result.getReadMicros()));
+                }
+            } catch (IOException e) {
+                plugin.getLogger().warning("Inventory benchmark failed: " + e.getMessage());
+            }
+        });
+    }
+
+    private void sendTimings(CommandSender sender, String type, TimingStats timings) {
+        msg.send(sender, "inventory-stats",
+                "{type}", type,
+                "{count}", String.valueOf(timings.getCount()),
+                "{average}", String.format("%.2f", timings.getAverageMillis()),
+                "{max}", String.format("%.2f", timings.getMaxMillis()));
+    }
+
     private void handleDelete(CommandSender sender, String[] args) {
         if (args.length < 2) {
             msg.send(sender, "usage-delete");
@@ -226,6 +374,7 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         }
 
         String worldName = args[1];
+        plugin.getInventoryManager().prefetch(player, worldName);
 
         World world = plugin.getWorldManager().getWorld(worldName);
 
@@ -239,16 +388,14 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
 
         msg.send(player, "loading-world", "{world}", worldName);
 
-        plugin.getWorldManager().loadWorld(worldName).thenAccept(loadedWorld -> {
+        plugin.getWorldManager().runWhenLoaded(worldName, player, loadedWorld -> {
             if (loadedWorld == null) {
                 msg.send(player, "world-not-found", "{world}", worldName);
                 return;
             }
 
-            plugin.getServer().getScheduler().runTask(plugin, () -> {
-                player.teleport(loadedWorld.getSpawnLocation());
-                msg.send(player, "teleported", "{world}", worldName);
-            });
+            player.teleport(loadedWorld.getSpawnLocation());
+            msg.send(player, "teleported", "{world}", worldName);
         });
     }
 
@@ -292,6 +439,8 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
 
     private void handleReload(CommandSender sender) {
         plugin.reloadConfig();
+        IslandStructure.clearCache();
+        plugin.getGeneratorRegistry().clearCache();
         msg.loadMessages();
         msg.send(sender, "config-reloaded");
     }
@@ -439,6 +588,7 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         }
 
         String subCommand = args[1].toLowerCase();
+        PregenManager pregenManager = plugin.getPregenManager();
 
         if (subCommand.equals("stop") || subCommand.equals("cancel")) {
             if (args.length < 3) {
@@ -446,9 +596,7 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
                 return;
             }
             String worldName = args[2];
-            BukkitTask task = pregenTasks.remove(worldName);
-            if (task != null) {
-                task.cancel();
+            if (pregenManager.stop(worldName)) {
                 msg.send(sender, "pregen-stopped", "{world}", worldName);
             } else {
                 msg.send(sender, "pregen-not-running", "{world}", worldName);
@@ -456,96 +604,164 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
+        if (subCommand.equals("pause") || subCommand.equals("resume")) {
+            if (args.length < 3) {
+                msg.send(sender, "usage-pregen-" + subCommand);
+                return;
+            }
+            String worldName = args[2];
+            if (!pregenManager.isRunning(worldName)) {
+                msg.send(sender, "pregen-not-running", "{world}", worldName);
+            } else if (subCommand.equals("pause") ? pregenManager.pause(worldName) : pregenManager.resume(worldName)) {
+                msg.send(sender, subCommand.equals("pause") ? "pregen-paused" : "pregen-resumed", "{world}", worldName);
+            }
+            return;
+        }
+
         if (subCommand.equals("status")) {
-            if (pregenTasks.isEmpty()) {
+            Collection<PregenTask> tasks = pregenManager.getTasks();
+            if (tasks.isEmpty()) {
                 msg.send(sender, "pregen-no-tasks");
             } else {
                 sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "ᴀᴄᴛɪᴠᴇ ᴘʀᴇɢᴇɴᴇʀᴀᴛɪᴏɴꜱ:");
-                pregenTasks.keySet().forEach(world ->
-                    sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "- " + world));
+                tasks.forEach(task -> {
+                    sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "- " + task.getWorldName() +
+                            " [" + task.getState().name().toLowerCase() + ", " + task.getArea().shape().name().toLowerCase() +
+                            ", ᴘʀɪᴏʀɪᴛʏ " + task.getPriority() + "]" +
+                            " (" + task.getCompleted().get() + "/" + task.getTotalChunks() + ", " +
+                            task.getProgressPercent() + "%)");
+
+                    PregenStats stats = task.getStats();
+                    msg.send(sender, "pregen-stats-rate",
+                            "{rate}", String.format("%.1f", stats.getCurrentRate()),
+                            "{average}", String.format("%.1f", stats.getAverageRate()),
+                            "{eta}", PregenStats.formatDuration(stats.getEtaSeconds(pregenManager.getRemaining(task))));
+                    msg.send(sender, "pregen-stats-counts",
+                            "{generated}", String.valueOf(stats.getGenerated()),
+                            "{skipped}", String.valueOf(stats.getSkipped()),
+                            "{failed}", String.valueOf(stats.getFailed()),
+                            "{main}", String.valueOf(stats.getMainThreadMillis()));
+                    msg.send(sender, "pregen-stats-latency",
+                            "{p50}", String.valueOf(stats.getLatencyPercentile(0.5)),
+                            "{p95}", String.valueOf(stats.getLatencyPercentile(0.95)),
+                            "{p99}", String.valueOf(stats.getLatencyPercentile(0.99)),
+                            "{max}", String.valueOf(stats.getMaxLatencyMillis()));
+                });
+                if (pregenManager.isPaused()) {
+                    msg.send(sender, "pregen-paused-players");
+                } else {
+                    msg.send(sender, "pregen-rate",
+                            "{rate}", String.valueOf(pregenManager.getChunksPerTick()),
+                            "{mspt}", String.format("%.1f", pregenManager.getMspt()));
+                }
             }
             return;
         }
 
         String worldName = args[1];
-        int radius;
 
         if (args.length < 3) {
             msg.send(sender, "usage-pregen");
             return;
         }
 
-        try {
-            radius = Integer.parseInt(args[2]);
-            if (radius < 1 || radius > 500) {
-                msg.send(sender, "pregen-invalid-radius");
-                return;
-            }
-        } catch (NumberFormatException e) {
-            msg.send(sender, "pregen-invalid-radius");
-            return;
-        }
-
         World world = plugin.getWorldManager().getWorld(worldName);
         if (world == null) {
             msg.send(sender, "world-not-found", "{world}", worldName);
             return;
         }
 
-        if (pregenTasks.containsKey(worldName)) {
-            msg.send(sender, "pregen-already-running", "{world}", worldName);
-            return;
-        }
-
-        startPregeneration(sender, world, radius);
-    }
-
-    private void startPregeneration(CommandSender sender, World world, int radius) {
-        String worldName = world.getName();
-        int totalChunks = (radius * 2 + 1) * (radius * 2 + 1);
-        AtomicInteger generated = new AtomicInteger(0);
-        AtomicInteger currentX = new AtomicInteger(-radius);
-        AtomicInteger currentZ = new AtomicInteger(-radius);
-        AtomicInteger lastProgress = new AtomicInteger(-1);
+        int maxRadius = pregenManager.getMaxRadius();
+        String size = args[2].toLowerCase();
+        boolean border = size.equals("border");
+        int radiusX = 0;
+        int radiusZ = 0;
 
-        Location center = world.getSpawnLocation();
-        int centerChunkX = center.getBlockX() >> 4;
-        int centerChunkZ = center.getBlockZ() >> 4;
-
-        int chunksPerTick = plugin.getConfig().getInt("performance.pregen-chunks-per-tick", 4);
-
-        msg.send(sender, "pregen-started", "{world}", worldName, "{chunks}", String.valueOf(totalChunks));
+        if (!border) {
+            try {
+                // <radius> for squares and circles, <radiusX>x<radiusZ> for rectangles
+                int separator = size.indexOf('x');
+                radiusX = Integer.parseInt(separator < 0 ? size : size.substring(0, separator));
+                radiusZ = separator < 0 ? radiusX : Integer.parseInt(size.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                radiusX = -1;
+            }
+            if (radiusX < 1 || radiusZ < 1 || radiusX > maxRadius || radiusZ > maxRadius) {
+                msg.send(sender, "pregen-invalid-radius", "{max}", String.valueOf(maxRadius));
+                return;
+            }
+        }
 
-        BukkitTask task = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
-            for (int i = 0; i < chunksPerTick && currentX.get() <= radius; i++) {
-                int chunkX = centerChunkX + currentX.get();
-                int chunkZ = centerChunkZ + currentZ.get();
+        PregenTask.Order order = null;
+        PregenArea.Shape shape = radiusX != radiusZ ? PregenArea.Shape.RECTANGLE : PregenArea.Shape.SQUARE;
+        int[] center = pregenManager.getSpawnChunk(world);
+        int priority = 5;
 
-                currentZ.incrementAndGet();
-                if (currentZ.get() > radius) {
-                    currentZ.set(-radius);
-                    currentX.incrementAndGet();
+        for (int i = 3; i < args.length; i++) {
+            String option = args[i].toLowerCase();
+            try {
+                if (option.startsWith("priority:")) {
+                    priority = Integer.parseInt(option.substring("priority:".length()));
+                    if (priority < 1 || priority > 10) {
+                        msg.send(sender, "pregen-invalid-priority");
+                        return;
+                    }
+                } else if (option.startsWith("center:")) {
+                    String[] coords = option.substring("center:".length()).split(",");
+                    if (coords.length != 2) {
+                        throw new NumberFormatException();
+                    }
+                    center = new int[]{Integer.parseInt(coords[0].trim()) >> 4, Integer.parseInt(coords[1].trim()) >> 4};
+                } else if (option.equals("circle")) {
+                    if (radiusX != radiusZ) {
+                        msg.send(sender, "pregen-invalid-shape");
+                        return;
+                    }
+                    shape = PregenArea.Shape.CIRCLE;
+                } else if (!option.equals("square")) {
+                    order = PregenTask.Order.valueOf(option.toUpperCase());
                 }
-
-                if (!world.isChunkGenerated(chunkX, chunkZ)) {
-                    world.getChunkAt(chunkX, chunkZ);
+            } catch (IllegalArgumentException e) {
+                if (option.startsWith("priority:")) {
+                    msg.send(sender, "pregen-invalid-priority");
+                } else if (option.startsWith("center:")) {
+                    msg.send(sender, "pregen-invalid-center");
+                } else {
+                    msg.send(sender, "pregen-invalid-order");
                 }
-                generated.incrementAndGet();
+                return;
             }
+        }
 
-            int progress = (generated.get() * 100) / totalChunks;
-            if (progress / 10 > lastProgress.get()) {
-                lastProgress.set(progress / 10);
-                sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "ᴘʀᴇɢᴇɴ: " + progress + "% (" + generated.get() + "/" + totalChunks + ")");
+        PregenArea area;
+        if (border) {
+            area = pregenManager.fitBorder(world);
+            if (area.maxRadius() > maxRadius) {
+                msg.send(sender, "pregen-border-too-large", "{max}", String.valueOf(maxRadius));
+                return;
             }
+        } else {
+            area = new PregenArea(shape, center[0], center[1], radiusX, radiusZ);
+        }
 
-            if (currentX.get() > radius) {
-                pregenTasks.remove(worldName).cancel();
-                msg.send(sender, "pregen-complete", "{world}", worldName, "{chunks}", String.valueOf(totalChunks));
+        if (order == null) {
+            try {
+                order = PregenTask.Order.valueOf(plugin.getConfig().getString("performance.pregen-order", "SPIRAL").toUpperCase());
+            } catch (IllegalArgumentException e) {
+                order = PregenTask.Order.SPIRAL;
             }
-        }, 1L, 2L);
+        }
 
-        pregenTasks.put(worldName, task);
+        if (!pregenManager.start(sender, world, area, order, priority)) {
+            msg.send(sender, "pregen-already-running", "{world}", worldName);
+            return;
+        }
+
+        PregenTask task = pregenManager.getTask(worldName);
+        msg.send(sender, "pregen-started", "{world}", worldName, "{chunks}", String.valueOf(task.getTotalChunks()));
+        if (task.getState() == PregenTask.State.QUEUED) {
+            msg.send(sender, "pregen-queued", "{world}", worldName);
+        }
     }
 
     private void handlePortal(CommandSender sender, String[] args) {
@@ -560,6 +776,7 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
             case "link" -> handlePortalLink(sender, args);
             case "unlink" -> handlePortalUnlink(sender, args);
             case "list" -> handlePortalList(sender);
+            case "region" -> handlePortalRegion(sender, args);
             default -> msg.send(sender, "usage-portal");
         }
     }
@@ -579,14 +796,36 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
             return;
         }
 
-        PortalManager portalManager = plugin.getPortalManager();
-
-        if (portalType.equals("nether")) {
-            portalManager.setNetherLink(fromWorld, toWorld);
-        } else {
-            portalManager.setEndLink(fromWorld, toWorld);
+        double ratio = 0;
+        PortalManager.Destination destination = null;
+        int searchRadius = -1;
+        for (int i = 5; i < args.length; i++) {
+            String option = args[i].toLowerCase();
+            try {
+                if (option.startsWith("ratio:")) {
+                    ratio = Double.parseDouble(option.substring("ratio:".length()));
+                    if (ratio <= 0) {
+                        throw new NumberFormatException();
+                    }
+                } else if (option.startsWith("radius:")) {
+                    searchRadius = Math.max(0, Integer.parseInt(option.substring("radius:".length())));
+                } else if (option.startsWith("destination:")) {
+                    destination = PortalManager.Destination.parse(option.substring("destination:".length()));
+                    if (destination == null) {
+                        throw new NumberFormatException();
+                    }
+                } else {
+                    throw new NumberFormatException();
+                }
+            } catch (NumberFormatException e) {
+                msg.send(sender, "portal-invalid-option", "{option}", args[i]);
+                return;
+            }
         }
 
+        PortalType type = portalType.equals("nether") ? PortalType.NETHER : PortalType.ENDER;
+        plugin.getPortalManager().setLink(fromWorld, new PortalManager.PortalLink(toWorld, type, ratio, destination, searchRadius));
+
         String linkedMsg = msg.getMessage("portal-linked")
                 .replace("{type}", portalType.toUpperCase())
                 .replace("{from}", fromWorld)
@@ -619,6 +858,105 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         msg.send(sender, "portal-unlinked", "{type}", portalType.toUpperCase(), "{world}", fromWorld);
     }
 
+    // /world portal region create <name> <target> cuboid <x,y,z> <x,y,z> [destination:x,y,z] [world:name]
+    // /world portal region create <name> <target> polygon <minY,maxY> <x,z> <x,z> <x,z>... [destination:x,y,z] [world:name]
+    // /world portal region remove <name>
+    private void handlePortalRegion(CommandSender sender, String[] args) {
+        if (args.length >= 4 && args[2].equalsIgnoreCase("remove")) {
+            if (plugin.getPortalManager().removeRegion(args[3])) {
+                msg.send(sender, "portal-region-removed", "{name}", args[3]);
+            } else {
+                msg.send(sender, "portal-region-not-found", "{name}", args[3]);
+            }
+            return;
+        }
+
+        if (args.length < 8 || !args[2].equalsIgnoreCase("create")) {
+            msg.send(sender, "usage-portal-region");
+            return;
+        }
+
+        String name = args[3];
+        String target = args[4];
+        String shape = args[5].toLowerCase();
+        if (!name.matches("[A-Za-z0-9_-]+")) {
+            msg.send(sender, "usage-portal-region");
+            return;
+        }
+
+        String world = sender instanceof Player player ? player.getWorld().getName() : null;
+        PortalManager.Destination destination = null;
+        List<int[]> points = new ArrayList<>();
+        for (int i = 6; i < args.length; i++) {
+            String option = args[i].toLowerCase();
+            if (option.startsWith("world:")) {
+                world = args[i].substring("world:".length());
+            } else if (option.startsWith("destination:")) {
+                destination = PortalManager.Destination.parse(option.substring("destination:".length()));
+                if (destination == null) {
+                    msg.send(sender, "portal-invalid-option", "{option}", args[i]);
+                    return;
+                }
+            } else {
+                int[] point = PortalManager.parseInts(option, shape.equals("cuboid") ? 3 : 2);
+                if (point == null) {
+                    msg.send(sender, "portal-invalid-option", "{option}", args[i]);
+                    return;
+                }
+                points.add(point);
+            }
+        }
+
+        if (world == null) {
+            msg.send(sender, "usage-portal-region");
+            return;
+        }
+        for (String worldName : new String[]{world, target}) {
+            if (!worldExists(worldName)) {
+                msg.send(sender, "world-not-found", "{world}", worldName);
+                return;
+            }
+        }
+
+        PortalRegion region;
+        if (shape.equals("cuboid") && points.size() == 2) {
+            int[] first = points.get(0);
+            int[] second = points.get(1);
+            region = PortalRegion.cuboid(name, world, first[0], first[1], first[2], second[0], second[1], second[2], target, destination);
+        } else if (shape.equals("polygon") && points.size() >= 4) {
+            // The first pair is the height range, the rest are the corners
+            int[] heights = points.get(0);
+            int[] pointsX = new int[points.size() - 1];
+            int[] pointsZ = new int[points.size() - 1];
+            for (int i = 1; i < points.size(); i++) {
+                pointsX[i - 1] = points.get(i)[0];
+                pointsZ[i - 1] = points.get(i)[1];
+            }
+            region = PortalRegion.polygon(name, world, heights[0], heights[1], pointsX, pointsZ, target, destination);
+        } else {
+            msg.send(sender, "usage-portal-region");
+            return;
+        }
+
+        long cells = PortalRegionIndex.cellCount(region);
+        long maxCells = plugin.getPortalManager().getMaxRegionCells();
+        if (cells > maxCells) {
+            msg.send(sender, "portal-region-too-large", "{name}", name, "{count}", String.valueOf(cells), "{max}", String.valueOf(maxCells));
+            return;
+        }
+
+        if (!plugin.getPortalManager().addRegion(region)) {
+            msg.send(sender, "portal-region-exists", "{name}", name);
+            return;
+        }
+        msg.send(sender, "portal-region-created", "{name}", name, "{world}", world, "{to}", target);
+    }
+
+    // Loaded worlds and world folders in the server directory
+    private boolean worldExists(String name) {
+        return plugin.getWorldManager().getWorld(name) != null || plugin.getWorldManager().getUnloadedWorlds().contains(name);
+    }
+
     private void handlePortalList(CommandSender sender) {
         PortalManager portalManager = plugin.getPortalManager();
 
@@ -626,8 +964,9 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
 
         Map<String, PortalManager.PortalLink> netherLinks = portalManager.getAllNetherLinks();
         Map<String, PortalManager.PortalLink> endLinks = portalManager.getAllEndLinks();
+        Map<String, PortalRegion> regions = portalManager.getAllRegions();
 
-        if (netherLinks.isEmpty() && endLinks.isEmpty()) {
+        if (netherLinks.isEmpty() && endLinks.isEmpty() && regions.isEmpty()) {
             sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "ɴᴏ ᴘᴏʀᴛᴀʟ ʟɪɴᴋꜱ ᴄᴏɴꜰɪɢᴜʀᴇᴅ.");
             return;
         }
@@ -635,19 +974,42 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         if (!netherLinks.isEmpty()) {
             sender.sendMessage(msg.getPrefix() + ChatColor.GOLD + "ɴᴇᴛʜᴇʀ:");
             netherLinks.forEach((from, link) ->
-                sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "  " + from + " -> " + link.targetWorld()));
+                sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "  " + from + " -> " + link.targetWorld() + formatLinkSettings(link)));
         }
 
         if (!endLinks.isEmpty()) {
             sender.sendMessage(msg.getPrefix() + ChatColor.DARK_PURPLE + "ᴇɴᴅ:");
             endLinks.forEach((from, link) ->
-                sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "  " + from + " -> " + link.targetWorld()));
+                sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "  " + from + " -> " + link.targetWorld() + formatLinkSettings(link)));
+        }
+
+        if (!regions.isEmpty()) {
+            sender.sendMessage(msg.getPrefix() + ChatColor.AQUA + "ʀᴇɢɪᴏɴꜱ:");
+            regions.values().forEach(region ->
+                sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "  " + region.name() + " (" + region.world() + ", "
+                        + region.shape().name().toLowerCase() + ") -> " + region.targetWorld()));
         }
     }
 
+    private static String formatLinkSettings(PortalManager.PortalLink link) {
+        StringBuilder settings = new StringBuilder();
+        if (link.ratio() > 0) {
+            settings.append(" ratio:").append(link.ratio());
+        }
+        if (link.destination() != null) {
+            PortalManager.Destination destination = link.destination();
+            settings.append(" destination:").append((int) destination.x()).append(',')
+                    .append((int) destination.y()).append(',').append((int) destination.z());
+        }
+        if (link.searchRadius() >= 0) {
+            settings.append(" radius:").append(link.searchRadius());
+        }
+        return settings.isEmpty() ? "" : ChatColor.DARK_GRAY + settings.toString();
+    }
+
     private void sendHelp(CommandSender sender) {
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "ʜᴇʟᴘ ᴍᴇɴᴜ:");
-        sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world create <ɴᴀᴍᴇ> [ᴛʏᴘᴇ] [ꜱᴇᴇᴅ] - ᴄʀᴇᴀᴛᴇꜱ ᴀ ɴᴇᴡ ᴡᴏʀʟᴅ.");
+        sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world create <ɴᴀᴍᴇ> [ᴛʏᴘᴇ] [ꜱᴇᴇᴅ] [ᴘʀᴇꜱᴇᴛ:ʟᴀʏᴇʀꜱ] [ʙɪᴏᴍᴇ:ɪᴅ] - ᴄʀᴇᴀᴛᴇꜱ ᴀ ɴᴇᴡ ᴡᴏʀʟᴅ.");
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world delete <ɴᴀᴍᴇ> - ᴅᴇʟᴇᴛᴇꜱ ᴀ ᴡᴏʀʟᴅ.");
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world clone <ꜱᴏᴜʀᴄᴇ> <ɴᴇᴡɴᴀᴍᴇ> - ᴄʟᴏɴᴇꜱ ᴀ ᴡᴏʀʟᴅ.");
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world rename <ᴏʟᴅ> <ɴᴇᴡ> - ʀᴇɴᴀᴍᴇꜱ ᴀ ᴡᴏʀʟᴅ.");
@@ -659,9 +1021,11 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world list - ʟɪꜱᴛꜱ ᴀʟʟ ᴡᴏʀʟᴅꜱ.");
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world gui - ᴏᴘᴇɴꜱ ᴡᴏʀʟᴅ ɢᴜɪ.");
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world info <ɴᴀᴍᴇ> - ᴠɪᴇᴡꜱ ᴡᴏʀʟᴅ ɪɴꜰᴏ.");
-        sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world pregen <ᴡᴏʀʟᴅ> <ʀᴀᴅɪᴜꜱ> - ᴘʀᴇɢᴇɴᴇʀᴀᴛᴇꜱ ᴄʜᴜɴᴋꜱ.");
-        sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world portal <ʟɪɴᴋ|ᴜɴʟɪɴᴋ|ʟɪꜱᴛ> - ᴍᴀɴᴀɢᴇꜱ ᴘᴏʀᴛᴀʟꜱ.");
+        sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world pregen <ᴡᴏʀʟᴅ> <ʀᴀᴅɪᴜꜱ|xʀxᴢ|ʙᴏʀᴅᴇʀ> [ᴄɪʀᴄʟᴇ] [ᴄᴇɴᴛᴇʀ:x,ᴢ] [ꜱᴘɪʀᴀʟ|ʀᴇɢɪᴏɴ] [ᴘʀɪᴏʀɪᴛʏ:ɴ] - ᴘʀᴇɢᴇɴᴇʀᴀᴛᴇꜱ ᴄʜᴜɴᴋꜱ.");
+        sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world portal <ʟɪɴᴋ|ᴜɴʟɪɴᴋ|ʟɪꜱᴛ|ʀᴇɢɪᴏɴ> [ʀᴀᴛɪᴏ:ɴ] [ᴅᴇꜱᴛɪɴᴀᴛɪᴏɴ:x,ʏ,ᴢ] [ʀᴀᴅɪᴜꜱ:ɴ] - ᴍᴀɴᴀɢᴇꜱ ᴘᴏʀᴛᴀʟꜱ.");
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world confirm/cancel - ᴄᴏɴꜰɪʀᴍꜱ/ᴄᴀɴᴄᴇʟꜱ ᴀᴄᴛɪᴏɴ.");
+        sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world inventory stats - ꜱʜᴏᴡꜱ ɪɴᴠᴇɴᴛᴏʀʏ ꜱᴀᴠᴇ/ʟᴏᴀᴅ ᴛɪᴍɪɴɢꜱ.");
+        msg.send(sender, "help-inventory-benchmark");
         sender.sendMessage(msg.getPrefix() + ChatColor.GRAY + "/world reload - ʀᴇʟᴏᴀᴅꜱ ᴛʜᴇ ᴄᴏɴꜰɪɢ.");
     }
 
@@ -670,7 +1034,7 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            completions.addAll(Arrays.asList("create", "delete", "clone", "rename", "import", "load", "unload", "tp", "setspawn", "list", "gui", "info", "pregen", "pregenerate", "portal", "confirm", "cancel", "reload", "help"));
+            completions.addAll(Arrays.asList("create", "delete", "clone", "rename", "import", "load", "unload", "tp", "setspawn", "list", "gui", "info", "pregen", "pregenerate", "portal", "inventory", "confirm", "cancel", "reload", "help"));
         } else if (args.length == 2) {
             switch (args[0].toLowerCase()) {
                 case "delete", "load", "unload", "tp", "info", "setspawn", "clone", "rename" ->
@@ -683,33 +1047,55 @@ public class WorldCommand implements CommandExecutor, TabCompleter {
                         completions.addAll(plugin.getWorldManager().getAllWorlds().stream()
                                 .map(World::getName)
                                 .toList());
-                        completions.addAll(Arrays.asList("stop", "status"));
+                        completions.addAll(Arrays.asList("stop", "pause", "resume", "status"));
                 }
                 case "portal" ->
-                        completions.addAll(Arrays.asList("link", "unlink", "list"));
+                        completions.addAll(Arrays.asList("link", "unlink", "list", "region"));
+                case "inventory" ->
+                        completions.addAll(Arrays.asList("stats", "benchmark"));
             }
         } else if (args.length == 3) {
             switch (args[0].toLowerCase()) {
-                case "create" -> completions.addAll(Arrays.asList("normal", "nether", "end", "void", "flat"));
+                case "create" -> {
+                    completions.addAll(Arrays.asList("normal", "nether", "end"));
+                    completions.addAll(plugin.getGeneratorRegistry().getIds());
+                }
                 case "pregen", "pregenerate" -> {
-                    if (args[1].equalsIgnoreCase("stop")) {
-                        completions.addAll(pregenTasks.keySet());
+                    if (args[1].equalsIgnoreCase("stop") || args[1].equalsIgnoreCase("pause")
+                            || args[1].equalsIgnoreCase("resume")) {
+                        completions.addAll(plugin.getPregenManager().getTasks().stream()
+                                .map(PregenTask::getWorldName)
+                                .toList());
                     } else {
-                        completions.addAll(Arrays.asList("5", "10", "20", "50", "100"));
+                        completions.addAll(Arrays.asList("5", "10", "20", "50", "100", "500", "1000", "border"));
                     }
                 }
                 case "portal" -> {
                     if (args[1].equalsIgnoreCase("link") || args[1].equalsIgnoreCase("unlink")) {
                         completions.addAll(Arrays.asList("nether", "end"));
+                    } else if (args[1].equalsIgnoreCase("region")) {
+                        completions.addAll(Arrays.asList("create", "remove"));
                     }
                 }
             }
+        } else if (args.length >= 4 && (args[0].equalsIgnoreCase("pregen") || args[0].equalsIgnoreCase("pregenerate"))) {
+            if (plugin.getWorldManager().getWorld(args[1]) != null) {
+                completions.addAll(Arrays.asList("spiral", "region", "square", "circle", "center:", "priority:"));
+            }
         } else if (args.length == 4 && args[0].equalsIgnoreCase("portal")) {
             if (args[1].equalsIgnoreCase("link") || args[1].equalsIgnoreCase("unlink")) {
                 completions.addAll(plugin.getWorldManager().getAllWorlds().stream()
                         .map(World::getName)
                         .toList());
+            } else if (args[1].equalsIgnoreCase("region") && args[2].equalsIgnoreCase("remove")) {
+                completions.addAll(plugin.getPortalManager().getAllRegions().keySet());
             }
+        } else if (args.length == 5 && args[0].equalsIgnoreCase("portal") && args[1].equalsIgnoreCase("region")) {
+            completions.addAll(plugin.getWorldManager().getAllWorlds().stream()
+                    .map(World::getName)
+                    .toList());
+        } else if (args.length == 6 && args[0].equalsIgnoreCase("portal") && args[1].equalsIgnoreCase("region")) {
+            completions.addAll(Arrays.asList("cuboid", "polygon"));
         } else if (args.length == 5 && args[0].equalsIgnoreCase("portal") && args[1].equalsIgnoreCase("link")) {
             completions.addAll(plugin.getWorldManager().getAllWorlds().stream()
                     .map(World::getName)
@@ -1,25 +1,116 @@
 package dev.meyba.justWorld.generators;
 
 import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
+import org.bukkit.generator.BlockPopulator;
 import org.bukkit.generator.ChunkGenerator;
 import org.bukkit.generator.WorldInfo;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FlatWorldGenerator extends ChunkGenerator {
+    public static final String DEFAULT_LAYERS = "minecraft:bedrock,2*minecraft:dirt,minecraft:grass_block";
+
+    // Presets are parsed once and shared by every world using them
+    private static final Map<String, Layer[]> PARSED_LAYERS = new ConcurrentHashMap<>();
+
+    private final Layer[] layers;
+    private final BiomeProvider biomeProvider;
+
+    public FlatWorldGenerator() {
+        this(DEFAULT_LAYERS, null);
+    }
+
+    // A null biome keeps the server's biome noise
+    public FlatWorldGenerator(String preset, Biome biome) {
+        this.layers = parseLayers(preset == null || preset.isBlank() ? DEFAULT_LAYERS : preset);
+        this.biomeProvider = biome == null ? null : new SingleBiomeProvider(biome);
+    }
 
     @Override
     public void generateNoise(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, ChunkData chunkData) {
-        for (int x = 0; x < 16; x++) {
-            for (int z = 0; z < 16; z++) {
-                chunkData.setBlock(x, 0, z, Material.BEDROCK);
-                chunkData.setBlock(x, 1, z, Material.DIRT);
-                chunkData.setBlock(x, 2, z, Material.DIRT);
-                chunkData.setBlock(x, 3, z, Material.GRASS_BLOCK);
+        int minHeight = chunkData.getMinHeight();
+        int maxHeight = chunkData.getMaxHeight();
+
+        for (Layer layer : layers) {
+            int fromY = Math.max(layer.fromY(), minHeight);
+            int toY = Math.min(layer.toY(), maxHeight);
+            if (fromY < toY) {
+                chunkData.setRegion(0, fromY, 0, 16, toY, 16, layer.material());
             }
         }
     }
 
+    @Override
+    public BiomeProvider getDefaultBiomeProvider(WorldInfo worldInfo) {
+        return biomeProvider;
+    }
+
+    @Override
+    public List<BlockPopulator> getDefaultPopulators(World world) {
+        return Collections.emptyList();
+    }
+
+    public static boolean isValidPreset(String preset) {
+        try {
+            parseLayers(preset);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    // Vanilla superflat syntax from the bottom up, e.g. "minecraft:bedrock,2*minecraft:dirt,minecraft:grass_block"
+    private static Layer[] parseLayers(String preset) {
+        return PARSED_LAYERS.computeIfAbsent(preset.trim().toLowerCase(), key -> {
+            List<Layer> parsed = new ArrayList<>();
+            int y = 0;
+
+            for (String entry : key.split(",")) {
+                String part = entry.trim();
+                int count = 1;
+                int separator = part.indexOf('*');
+                if (separator >= 0) {
+                    try {
+                        count = Integer.parseInt(part.substring(0, separator).trim());
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("Invalid layer count: " + part);
+                    }
+                    part = part.substring(separator + 1).trim();
+                }
+
+                Material material = Material.matchMaterial(part);
+                if (material == null || !material.isBlock() || count < 1) {
+                    throw new IllegalArgumentException("Invalid layer: " + entry);
+                }
+
+                // Air layers only move the next layer up, the chunk starts out empty anyway
+                if (!material.isAir()) {
+                    parsed.add(new Layer(material, y, y + count));
+                }
+                y += count;
+            }
+
+            if (y == 0) {
+                throw new IllegalArgumentException("Empty layer preset");
+            }
+            return parsed.toArray(new Layer[0]);
+        });
+    }
+
+    // Holds no mutable state, so the server may generate chunks on several threads at once
+    @Override
+    public boolean isParallelCapable() {
+        return true;
+    }
+
     @Override
     public boolean shouldGenerateSurface() {
         return false;
@@ -49,4 +140,7 @@ public class FlatWorldGenerator extends ChunkGenerator {
     public boolean shouldGenerateStructures() {
         return false;
     }
-}
\ No newline at end of file
+
+    private record Layer(Material material, int fromY, int toY) {
+    }
+}
@@ -0,0 +1,108 @@
+package dev.meyba.justWorld.generators;
+
+import dev.meyba.justWorld.JustWorld;
+import dev.meyba.justWorld.other.WorldData;
+import org.bukkit.Bukkit;
+import org.bukkit.WorldCreator;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.ChunkGenerator;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class GeneratorRegistry {
+
+    @FunctionalInterface
+    public interface GeneratorFactory {
+        // Settings and biome are null when the world has none
+        ChunkGenerator create(String settings, Biome biome);
+    }
+
+    private final JustWorld plugin;
+    private final Map<String, GeneratorFactory> factories;
+    private final Map<String, ChunkGenerator> instances;
+
+    public GeneratorRegistry(JustWorld plugin) {
+        this.plugin = plugin;
+        this.factories = new ConcurrentHashMap<>();
+        this.instances = new ConcurrentHashMap<>();
+
+        register(WorldData.GeneratorType.VOID.getId(), (settings, biome) -> new VoidWorldGenerator(biome));
+        register(WorldData.GeneratorType.FLAT.getId(), FlatWorldGenerator::new);
+        register(WorldData.GeneratorType.ISLAND.getId(), (settings, biome) -> new IslandWorldGenerator(IslandStructure.get(islandSchematic(settings)), biome));
+        register(WorldData.GeneratorType.TERRAIN.getId(), (settings, biome) -> new TerrainWorldGenerator(biome));
+    }
+
+    public void register(String id, GeneratorFactory factory) {
+        if (factories.putIfAbsent(normalize(id), factory) != null) {
+            throw new IllegalArgumentException("Generator " + id + " is already registered");
+        }
+    }
+
+    public void unregister(String id) {
+        String key = normalize(id);
+        factories.remove(key);
+        instances.keySet().removeIf(cacheKey -> cacheKey.startsWith(key + '\0'));
+    }
+
+    public boolean isRegistered(String id) {
+        return id != null && factories.containsKey(normalize(id));
+    }
+
+    // Registered ids, or the name of a plugin providing a Bukkit world generator
+    public boolean isAvailable(String id) {
+        return isRegistered(id) || (id != null && Bukkit.getPluginManager().getPlugin(id) != null);
+    }
+
+    public Set<String> getIds() {
+        return Collections.unmodifiableSet(factories.keySet());
+    }
+
+    // Worlds with the same generator id, settings and biome share one instance, so setup such as noise tables
+    // or parsed structures happens once. Null means the server's own generator.
+    public ChunkGenerator getGenerator(WorldData data) {
+        String id = data.generator();
+        if (id == null || id.isBlank()) {
+            return null;
+        }
+
+        GeneratorFactory factory = factories.get(normalize(id));
+        if (factory == null) {
+            // Other plugins' generators are created per world through Bukkit, settings become their generator id
+            String name = data.generatorSettings() == null || data.generatorSettings().isBlank()
+                    ? id : id + ":" + data.generatorSettings();
+            ChunkGenerator external = WorldCreator.getGeneratorForName(data.name(), name, Bukkit.getConsoleSender());
+            if (external == null) {
+                plugin.getLogger().warning("Unknown generator " + id + " for world " + data.name() + ", using the default generator");
+            }
+            return external;
+        }
+
+        String cacheKey = normalize(id) + '\0' + nullToEmpty(data.generatorSettings()) + '\0' + nullToEmpty(data.biome()).toLowerCase();
+        return instances.computeIfAbsent(cacheKey,
+                key -> factory.create(data.generatorSettings(), SingleBiomeProvider.resolve(data.biome())));
+    }
+
+    // Worlds already loaded keep their instance, only new worlds pick up changed structure files or presets
+    public void clearCache() {
+        instances.clear();
+    }
+
+    // Island worlds saved without a schematic use the configured default, like /world create does
+    private String islandSchematic(String settings) {
+        if (settings != null && !settings.isBlank()) {
+            return settings;
+        }
+        return plugin.getConfig().getString("generators.island-schematic", "islands/island.nbt");
+    }
+
+    private static String normalize(String id) {
+        return id.trim().toLowerCase();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
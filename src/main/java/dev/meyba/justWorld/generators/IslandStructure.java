@@ -0,0 +1,182 @@
+package dev.meyba.justWorld.generators;
+
+import dev.meyba.justWorld.JustWorld;
+import org.bukkit.Bukkit;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.structure.Palette;
+import org.bukkit.structure.Structure;
+import org.bukkit.util.BlockVector;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// A vanilla structure (.nbt) flattened into a block palette and bit-packed palette indices, index 0 is air
+public final class IslandStructure {
+    public static final IslandStructure EMPTY = new IslandStructure(0, 0, 0, new BlockData[]{null}, new long[0], 1);
+
+    // One parsed copy per file, shared by every world stamping it
+    private static final Map<String, IslandStructure> LOADED = new ConcurrentHashMap<>();
+
+    private final int width;
+    private final int height;
+    private final int length;
+    private final BlockData[] palette;
+    private final long[] packed;
+    private final int bitsPerEntry;
+    private final int entriesPerLong;
+    private final long mask;
+    private final int surfaceY;
+
+    private IslandStructure(int width, int height, int length, BlockData[] palette, long[] packed, int bitsPerEntry) {
+        this.width = width;
+        this.height = height;
+        this.length = length;
+        this.palette = palette;
+        this.packed = packed;
+        this.bitsPerEntry = bitsPerEntry;
+        this.entriesPerLong = 64 / bitsPerEntry;
+        this.mask = (1L << bitsPerEntry) - 1;
+        this.surfaceY = findSurface();
+    }
+
+    // Relative names are resolved against the plugin folder, no name or a missing or broken file yields EMPTY
+    public static IslandStructure get(String name) {
+        if (name == null || name.isBlank()) {
+            return EMPTY;
+        }
+
+        File file = resolve(name);
+        return LOADED.computeIfAbsent(file.getAbsolutePath(), path -> load(file));
+    }
+
+    public static boolean exists(String name) {
+        return name != null && !name.isBlank() && resolve(name).isFile();
+    }
+
+    public static void clearCache() {
+        LOADED.clear();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    // First air block above the structure's centre column
+    public int getSurfaceY() {
+        return surfaceY;
+    }
+
+    // Writes the part of the structure that falls into this chunk, originX/Z being its minimum corner
+    public void stamp(ChunkGenerator.ChunkData chunkData, int chunkX, int chunkZ, int originX, int originY, int originZ) {
+        int blockX = chunkX << 4;
+        int blockZ = chunkZ << 4;
+        int fromX = Math.max(blockX, originX);
+        int toX = Math.min(blockX + 15, originX + width - 1);
+        int fromZ = Math.max(blockZ, originZ);
+        int toZ = Math.min(blockZ + 15, originZ + length - 1);
+        if (fromX > toX || fromZ > toZ) {
+            return;
+        }
+
+        int fromY = Math.max(0, chunkData.getMinHeight() - originY);
+        int toY = Math.min(height, chunkData.getMaxHeight() - originY);
+        for (int y = fromY; y < toY; y++) {
+            for (int z = fromZ; z <= toZ; z++) {
+                int rowStart = (y * length + (z - originZ)) * width - originX;
+                for (int x = fromX; x <= toX; x++) {
+                    int paletteIndex = entry(rowStart + x);
+                    if (paletteIndex != 0) {
+                        chunkData.setBlock(x - blockX, originY + y, z - blockZ, palette[paletteIndex]);
+                    }
+                }
+            }
+        }
+    }
+
+    private int entry(int index) {
+        long word = packed[index / entriesPerLong];
+        return (int) ((word >>> ((index % entriesPerLong) * bitsPerEntry)) & mask);
+    }
+
+    private int findSurface() {
+        int centerX = width / 2;
+        int centerZ = length / 2;
+        for (int y = height - 1; y >= 0; y--) {
+            if (entry((y * length + centerZ) * width + centerX) != 0) {
+                return y + 1;
+            }
+        }
+        return 0;
+    }
+
+    private static File resolve(String name) {
+        File file = new File(name);
+        return file.isAbsolute() ? file : new File(JavaPlugin.getPlugin(JustWorld.class).getDataFolder(), name);
+    }
+
+    private static IslandStructure load(File file) {
+        if (!file.isFile()) {
+            JavaPlugin.getPlugin(JustWorld.class).getLogger().warning("Island structure " + file + " not found, generating void");
+            return EMPTY;
+        }
+
+        try {
+            Structure structure = Bukkit.getStructureManager().loadStructure(file);
+            if (structure.getPalettes().isEmpty()) {
+                return EMPTY;
+            }
+
+            BlockVector size = structure.getSize();
+            int width = size.getBlockX();
+            int height = size.getBlockY();
+            int length = size.getBlockZ();
+            Palette source = structure.getPalettes().get(0);
+
+            List<BlockData> palette = new ArrayList<>();
+            palette.add(null);
+            Map<String, Integer> paletteIndex = new HashMap<>();
+            int[] indices = new int[width * height * length];
+
+            for (BlockState state : source.getBlocks()) {
+                if (state.getType().isAir()) continue;
+
+                BlockData data = state.getBlockData();
+                int index = paletteIndex.computeIfAbsent(data.getAsString(), key -> {
+                    palette.add(data);
+                    return palette.size() - 1;
+                });
+                indices[(state.getY() * length + state.getZ()) * width + state.getX()] = index;
+            }
+
+            int bitsPerEntry = Math.max(1, 32 - Integer.numberOfLeadingZeros(palette.size() - 1));
+            int entriesPerLong = 64 / bitsPerEntry;
+            long[] packed = new long[(indices.length + entriesPerLong - 1) / entriesPerLong];
+            for (int i = 0; i < indices.length; i++) {
+                packed[i / entriesPerLong] |= (long) indices[i] << ((i % entriesPerLong) * bitsPerEntry);
+            }
+
+            JavaPlugin.getPlugin(JustWorld.class).getLogger().info("Loaded island structure " + file.getName() + " (" +
+                    width + "x" + height + "x" + length + ", " + (palette.size() - 1) + " block types)");
+            return new IslandStructure(width, height, length, palette.toArray(new BlockData[0]), packed, bitsPerEntry);
+        } catch (IOException | RuntimeException e) {
+            JavaPlugin.getPlugin(JustWorld.class).getLogger().warning("Could not load island structure " + file + ": " + e.getMessage());
+            return EMPTY;
+        }
+    }
+}
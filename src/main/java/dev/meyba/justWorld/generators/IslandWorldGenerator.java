@@ -0,0 +1,44 @@
+package dev.meyba.justWorld.generators;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.WorldInfo;
+
+import java.util.Random;
+
+// A void world with a pre-parsed structure stamped around 0, 0 while the spawn chunks generate
+public class IslandWorldGenerator extends VoidWorldGenerator {
+    public static final int ISLAND_Y = 64;
+
+    private final IslandStructure structure;
+    private final int originX;
+    private final int originY;
+    private final int originZ;
+
+    public IslandWorldGenerator(IslandStructure structure, Biome biome) {
+        super(biome);
+        this.structure = structure;
+        this.originX = -structure.getWidth() / 2;
+        this.originY = ISLAND_Y;
+        this.originZ = -structure.getLength() / 2;
+    }
+
+    @Override
+    public void generateNoise(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, ChunkData chunkData) {
+        if (structure == IslandStructure.EMPTY) {
+            super.generateNoise(worldInfo, random, chunkX, chunkZ, chunkData);
+            return;
+        }
+
+        structure.stamp(chunkData, chunkX, chunkZ, originX, originY, originZ);
+    }
+
+    @Override
+    public Location getFixedSpawnLocation(World world, Random random) {
+        if (structure == IslandStructure.EMPTY) {
+            return super.getFixedSpawnLocation(world, random);
+        }
+        return new Location(world, 0.5, originY + structure.getSurfaceY(), 0.5);
+    }
+}
@@ -0,0 +1,43 @@
+package dev.meyba.justWorld.generators;
+
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
+import org.bukkit.generator.WorldInfo;
+
+import java.util.List;
+
+public class SingleBiomeProvider extends BiomeProvider {
+    private final Biome biome;
+    private final List<Biome> biomes;
+
+    public SingleBiomeProvider(Biome biome) {
+        this.biome = biome;
+        this.biomes = List.of(biome);
+    }
+
+    @Override
+    public Biome getBiome(WorldInfo worldInfo, int x, int y, int z) {
+        return biome;
+    }
+
+    @Override
+    public List<Biome> getBiomes(WorldInfo worldInfo) {
+        return biomes;
+    }
+
+    // Null for blank keys or "vanilla", which leave biomes to the server
+    public static Biome resolve(String key) {
+        if (key == null || key.isBlank() || key.equalsIgnoreCase("vanilla")) {
+            return null;
+        }
+
+        NamespacedKey namespacedKey = NamespacedKey.fromString(key.toLowerCase());
+        return namespacedKey == null ? null : Registry.BIOME.get(namespacedKey);
+    }
+
+    public static boolean isValid(String key) {
+        return key == null || key.isBlank() || key.equalsIgnoreCase("vanilla") || resolve(key) != null;
+    }
+}
@@ -0,0 +1,84 @@
+package dev.meyba.justWorld.generators;
+
+import java.util.Random;
+
+// 2D Perlin noise over a seeded permutation table, immutable once built so threads can share it
+final class TerrainNoise {
+    private static final double[] GRADIENT_X = {1, -1, 1, -1, 1, -1, 0, 0};
+    private static final double[] GRADIENT_Z = {1, 1, -1, -1, 0, 0, 1, -1};
+
+    private final long seed;
+    private final int[] permutation;
+
+    TerrainNoise(long seed) {
+        this.seed = seed;
+        this.permutation = new int[512];
+
+        Random random = new Random(seed);
+        for (int i = 0; i < 256; i++) {
+            permutation[i] = i;
+        }
+        for (int i = 255; i > 0; i--) {
+            int swap = random.nextInt(i + 1);
+            int value = permutation[i];
+            permutation[i] = permutation[swap];
+            permutation[swap] = value;
+        }
+        System.arraycopy(permutation, 0, permutation, 256, 256);
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    // Sum of octaves, each at double the frequency and half the amplitude, normalised to roughly -1..1
+    double fractal(double x, double z, int octaves) {
+        double total = 0;
+        double amplitude = 1;
+        double frequency = 1;
+        double range = 0;
+
+        for (int octave = 0; octave < octaves; octave++) {
+            total += sample(x * frequency, z * frequency) * amplitude;
+            range += amplitude;
+            amplitude *= 0.5;
+            frequency *= 2;
+        }
+        return total / range;
+    }
+
+    double sample(double x, double z) {
+        int floorX = (int) Math.floor(x);
+        int floorZ = (int) Math.floor(z);
+        double localX = x - floorX;
+        double localZ = z - floorZ;
+        int cellX = floorX & 255;
+        int cellZ = floorZ & 255;
+
+        int left = permutation[cellX];
+        int right = permutation[cellX + 1];
+        double fadeX = fade(localX);
+        double fadeZ = fade(localZ);
+
+        double top = lerp(fadeX,
+                gradient(permutation[left + cellZ], localX, localZ),
+                gradient(permutation[right + cellZ], localX - 1, localZ));
+        double bottom = lerp(fadeX,
+                gradient(permutation[left + cellZ + 1], localX, localZ - 1),
+                gradient(permutation[right + cellZ + 1], localX - 1, localZ - 1));
+        return lerp(fadeZ, top, bottom);
+    }
+
+    private static double gradient(int hash, double x, double z) {
+        int index = hash & 7;
+        return GRADIENT_X[index] * x + GRADIENT_Z[index] * z;
+    }
+
+    private static double fade(double t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static double lerp(double t, double from, double to) {
+        return from + t * (to - from);
+    }
+}
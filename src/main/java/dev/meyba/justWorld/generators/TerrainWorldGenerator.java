@@ -0,0 +1,136 @@
+package dev.meyba.justWorld.generators;
+
+import org.bukkit.HeightMap;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
+import org.bukkit.generator.BlockPopulator;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.generator.WorldInfo;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Rolling heightmap terrain from a few octaves of 2D noise, far cheaper than vanilla noise for throwaway maps
+public class TerrainWorldGenerator extends ChunkGenerator {
+    private static final int SEA_LEVEL = 62;
+    private static final int BASE_HEIGHT = 68;
+    private static final double AMPLITUDE = 22.0;
+    private static final double SCALE = 1.0 / 160.0;
+    private static final int OCTAVES = 4;
+
+    // Scratch heights reused by each generating thread instead of a new array per chunk
+    private static final ThreadLocal<int[]> HEIGHTS = ThreadLocal.withInitial(() -> new int[256]);
+
+    private final BiomeProvider biomeProvider;
+    // The registry shares one instance between worlds, so each seed keeps its own noise table
+    private final Map<Long, TerrainNoise> noises = new ConcurrentHashMap<>();
+
+    public TerrainWorldGenerator(Biome biome) {
+        this.biomeProvider = biome == null ? null : new SingleBiomeProvider(biome);
+    }
+
+    @Override
+    public void generateNoise(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, ChunkData chunkData) {
+        TerrainNoise terrainNoise = getNoise(worldInfo.getSeed());
+        int[] heights = HEIGHTS.get();
+        int minHeight = chunkData.getMinHeight();
+        int maxHeight = chunkData.getMaxHeight() - 1;
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                heights[x * 16 + z] = Math.max(minHeight + 1,
+                        Math.min(maxHeight, height(terrainNoise, (chunkX << 4) + x, (chunkZ << 4) + z)));
+            }
+        }
+
+        chunkData.setRegion(0, minHeight, 0, 16, minHeight + 1, 16, Material.BEDROCK);
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                int surface = heights[x * 16 + z];
+                boolean beach = surface <= SEA_LEVEL + 1;
+
+                chunkData.setRegion(x, minHeight + 1, z, x + 1, Math.max(minHeight + 1, surface - 3), z + 1, Material.STONE);
+                chunkData.setRegion(x, Math.max(minHeight + 1, surface - 3), z, x + 1, surface, z + 1,
+                        beach ? Material.SAND : Material.DIRT);
+                chunkData.setBlock(x, surface, z, beach ? Material.SAND : Material.GRASS_BLOCK);
+
+                if (surface < SEA_LEVEL) {
+                    chunkData.setRegion(x, surface + 1, z, x + 1, SEA_LEVEL + 1, z + 1, Material.WATER);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getBaseHeight(WorldInfo worldInfo, Random random, int x, int z, HeightMap heightMap) {
+        return height(getNoise(worldInfo.getSeed()), x, z) + 1;
+    }
+
+    @Override
+    public BiomeProvider getDefaultBiomeProvider(WorldInfo worldInfo) {
+        return biomeProvider;
+    }
+
+    @Override
+    public List<BlockPopulator> getDefaultPopulators(World world) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Location getFixedSpawnLocation(World world, Random random) {
+        int surface = height(getNoise(world.getSeed()), 0, 0);
+        return new Location(world, 0.5, Math.max(surface, SEA_LEVEL) + 1, 0.5);
+    }
+
+    // Holds no mutable state besides per-thread scratch buffers and an immutable noise table
+    @Override
+    public boolean isParallelCapable() {
+        return true;
+    }
+
+    @Override
+    public boolean shouldGenerateSurface() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateBedrock() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateCaves() {
+        return false;
+    }
+
+    @Override
+    public boolean shouldGenerateDecorations() {
+        return true;
+    }
+
+    @Override
+    public boolean shouldGenerateMobs() {
+        return true;
+    }
+
+    @Override
+    public boolean shouldGenerateStructures() {
+        return false;
+    }
+
+    private static int height(TerrainNoise terrainNoise, int blockX, int blockZ) {
+        return BASE_HEIGHT + (int) Math.round(terrainNoise.fractal(blockX * SCALE, blockZ * SCALE, OCTAVES) * AMPLITUDE);
+    }
+
+    // The seed is only known once the server asks for chunks, the table is built once per seed and then shared
+    private TerrainNoise getNoise(long seed) {
+        return noises.computeIfAbsent(seed, TerrainNoise::new);
+    }
+}
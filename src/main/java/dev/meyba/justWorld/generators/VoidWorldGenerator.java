@@ -3,12 +3,27 @@ package dev.meyba.justWorld.generators;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.World;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.BiomeProvider;
+import org.bukkit.generator.BlockPopulator;
 import org.bukkit.generator.ChunkGenerator;
 import org.bukkit.generator.WorldInfo;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 
 public class VoidWorldGenerator extends ChunkGenerator {
+    private final BiomeProvider biomeProvider;
+
+    public VoidWorldGenerator() {
+        this(null);
+    }
+
+    // A null biome keeps the server's biome noise
+    public VoidWorldGenerator(Biome biome) {
+        this.biomeProvider = biome == null ? null : new SingleBiomeProvider(biome);
+    }
 
     @Override
     public void generateNoise(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, ChunkData chunkData) {
@@ -26,11 +41,27 @@ public class VoidWorldGenerator extends ChunkGenerator {
     @Override
     public void generateCaves(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, ChunkData chunkData) {}
 
+    @Override
+    public BiomeProvider getDefaultBiomeProvider(WorldInfo worldInfo) {
+        return biomeProvider;
+    }
+
+    @Override
+    public List<BlockPopulator> getDefaultPopulators(World world) {
+        return Collections.emptyList();
+    }
+
     @Override
     public Location getFixedSpawnLocation(World world, Random random) {
         return new Location(world, 0.5, 65, 0.5);
     }
 
+    // Holds no mutable state, so the server may generate chunks on several threads at once
+    @Override
+    public boolean isParallelCapable() {
+        return true;
+    }
+
     @Override
     public boolean shouldGenerateNoise() {
         return false;
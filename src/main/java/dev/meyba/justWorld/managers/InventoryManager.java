@@ -1,50 +1,132 @@
 package dev.meyba.justWorld.managers;
 
 import dev.meyba.justWorld.JustWorld;
-import org.bukkit.NamespacedKey;
-import org.bukkit.Registry;
+import dev.meyba.justWorld.other.PlayerSnapshot;
+import dev.meyba.justWorld.other.PlayerStateCache;
+import dev.meyba.justWorld.other.TimingStats;
+import dev.meyba.justWorld.utils.InventorySerializer;
+import dev.meyba.justWorld.utils.StripedExecutor;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.potion.PotionEffect;
-import org.bukkit.potion.PotionEffectType;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
 
 public class InventoryManager implements Listener {
+    private static final String LAST_GROUP_EXTENSION = ".last";
+
     private final JustWorld plugin;
     private final File inventoriesFolder;
     private final Map<String, String> worldGroups;
     private final Set<String> enabledWorlds;
+    private final StripedExecutor ioExecutor;
+    private final Map<UUID, Long> pendingLoads;
+    private final PlayerStateCache cache;
+    private final Map<PlayerStateCache.Key, CompletableFuture<PlayerSnapshot>> fetches;
+    // Group each player logged out in since the server started, older ones are read from their .last file
+    private final Map<UUID, String> lastGroups;
+    private final TimingStats captureTimings;
+    private final TimingStats saveTimings;
+    private final TimingStats loadTimings;
+    private final TimingStats applyTimings;
+    private long nextLoad;
     private boolean enabled;
     private boolean separateGamemodes;
+    private boolean compress;
+    private long prefetchWaitMillis;
+    private BukkitTask flushTask;
 
     public InventoryManager(JustWorld plugin) {
         this.plugin = plugin;
         this.inventoriesFolder = new File(plugin.getDataFolder(), "inventories");
         this.worldGroups = new HashMap<>();
         this.enabledWorlds = new HashSet<>();
+        // Each player's saves and loads run in order on one lane, so a save is always ahead of any later load of
+        // the same file, while different players are handled in parallel
+        this.ioExecutor = new StripedExecutor("JustWorld-Inventories", plugin.getConfig().getInt("per-world-inventory.io-threads",
+                Math.min(4, Runtime.getRuntime().availableProcessors())));
+        this.pendingLoads = new HashMap<>();
+        this.fetches = new ConcurrentHashMap<>();
+        this.lastGroups = new ConcurrentHashMap<>();
+        this.cache = new PlayerStateCache(plugin.getConfig().getInt("per-world-inventory.cache-size", 1000));
+        this.captureTimings = new TimingStats();
+        this.saveTimings = new TimingStats();
+        this.loadTimings = new TimingStats();
+        this.applyTimings = new TimingStats();
 
         if (!inventoriesFolder.exists()) {
             inventoriesFolder.mkdirs();
         }
 
         loadConfig();
+
+        long flushInterval = plugin.getConfig().getLong("per-world-inventory.flush-interval", 60) * 20L;
+        if (flushInterval > 0) {
+            this.flushTask = plugin.getServer().getScheduler().runTaskTimer(plugin, () -> flush(key -> true),
+                    flushInterval, flushInterval);
+        }
+    }
+
+    // Players still online are saved and every dirty entry is written before the pending writes are drained,
+    // quit events come too late on shutdown
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+        }
+
+        if (enabled) {
+            for (Player player : plugin.getServer().getOnlinePlayers()) {
+                String worldName = player.getWorld().getName();
+                if (isInventorySeparated(worldName)) {
+                    savePlayerData(player, getWorldGroup(worldName));
+                    recordLastGroup(player.getUniqueId(), getWorldGroup(worldName));
+                }
+            }
+        }
+        flush(key -> true);
+
+        try {
+            if (!ioExecutor.shutdown(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out waiting for inventory saves to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     private void loadConfig() {
         this.enabled = plugin.getConfig().getBoolean("per-world-inventory.enabled", false);
         this.separateGamemodes = plugin.getConfig().getBoolean("per-world-inventory.separate-gamemodes", true);
+        this.compress = plugin.getConfig().getBoolean("per-world-inventory.compress", true);
+        this.prefetchWaitMillis = Math.max(0, plugin.getConfig().getLong("per-world-inventory.prefetch-wait-ms", 100));
 
         worldGroups.clear();
         enabledWorlds.clear();
@@ -108,6 +190,161 @@ public class InventoryManager implements Listener {
 
         String group = getWorldGroup(worldName);
         savePlayerData(player, group);
+        UUID playerId = player.getUniqueId();
+        flush(key -> key.playerId().equals(playerId));
+        recordLastGroup(playerId, group);
+        pendingLoads.remove(playerId);
+    }
+
+    // Other plugins' teleports, portals handled by JustWorld prefetch earlier when the trip starts
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent event) {
+        prefetch(event.getPlayer(), event.getTo());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPlayerPortal(PlayerPortalEvent event) {
+        prefetch(event.getPlayer(), event.getTo());
+    }
+
+    // Runs on the login thread. The group the player logged out in is read on their IO lane, and the login waits at
+    // most prefetch-wait-ms for it. A read that is not done by then is picked up by the join, which queues behind it.
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (!enabled || event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+
+        UUID playerId = event.getUniqueId();
+        String lastGroup = lastGroups.remove(playerId);
+        try {
+            long generation = cache.getGeneration();
+            CompletableFuture<Void> prefetch = CompletableFuture.runAsync(
+                    () -> prefetchLastGroup(playerId, lastGroup, generation), ioExecutor.lane(playerId));
+            if (prefetchWaitMillis > 0) {
+                prefetch.get(prefetchWaitMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (TimeoutException e) {
+            // The join waits for the read instead
+        } catch (ExecutionException | RejectedExecutionException e) {
+            plugin.getLogger().warning("Failed to prefetch inventory for " + event.getName() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Starts reading the state a player needs in the target world's group, so the world change itself only applies
+    // cached state. Main thread only.
+    public void prefetch(Player player, String targetWorld) {
+        if (!enabled) return;
+
+        String fromWorld = player.getWorld().getName();
+        if (!isInventorySeparated(fromWorld) && !isInventorySeparated(targetWorld)) {
+            return;
+        }
+
+        String group = getWorldGroup(targetWorld);
+        if (group.equals(getWorldGroup(fromWorld))) {
+            return;
+        }
+
+        PlayerStateCache.Key key = getCacheKey(player, group);
+        if (!cache.contains(key)) {
+            fetch(key);
+        }
+    }
+
+    private void prefetch(Player player, Location to) {
+        if (to != null && to.getWorld() != null && to.getWorld() != player.getWorld()) {
+            prefetch(player, to.getWorld().getName());
+        }
+    }
+
+    // IO thread only. All gamemodes of the group the player logged out in are cached, so the join needs no read
+    // whatever the player's gamemode is. Players without a recorded group are left to the join.
+    private void prefetchLastGroup(UUID playerId, String lastGroup, long generation) {
+        long started = System.nanoTime();
+        File playerFile = null;
+        try {
+            String group = lastGroup != null ? lastGroup : readLastGroup(playerId);
+            if (group == null) {
+                return;
+            }
+
+            playerFile = getPlayerFile(playerId, group);
+            Map<String, byte[]> entries = readEntries(playerFile);
+            List<String> gameModes = new ArrayList<>();
+            if (separateGamemodes) {
+                for (GameMode gameMode : GameMode.values()) {
+                    gameModes.add(gameMode.name());
+                }
+            } else {
+                gameModes.add("");
+            }
+
+            for (String gameMode : gameModes) {
+                byte[] data = entries.get(gameMode);
+                PlayerSnapshot snapshot = data == null ? null : InventorySerializer.decode(data);
+                cache.putLoaded(new PlayerStateCache.Key(playerId, group, gameMode), snapshot, generation);
+            }
+            loadTimings.record(System.nanoTime() - started);
+        } catch (IOException e) {
+            plugin.getLogger().warning("Failed to prefetch inventory " + (playerFile == null ? playerId + LAST_GROUP_EXTENSION
+                    : playerFile.getName()) + ": " + e.getMessage());
+        }
+    }
+
+    // Remembered in memory for the next login and written to the player's lane behind their last saves
+    private void recordLastGroup(UUID playerId, String group) {
+        lastGroups.put(playerId, group);
+        ioExecutor.execute(playerId, () -> {
+            try {
+                writeLastGroup(playerId, group);
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to save last inventory group for " + playerId + ": " + e.getMessage());
+            }
+        });
+    }
+
+    // IO thread only
+    private void writeLastGroup(UUID playerId, String group) throws IOException {
+        File file = new File(inventoriesFolder, playerId + LAST_GROUP_EXTENSION);
+        File tempFile = new File(inventoriesFolder, file.getName() + ".tmp");
+        Files.writeString(tempFile.toPath(), group, StandardCharsets.UTF_8);
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // IO thread only. Null when no group was recorded yet
+    private String readLastGroup(UUID playerId) throws IOException {
+        File file = new File(inventoriesFolder, playerId + LAST_GROUP_EXTENSION);
+        if (!file.exists()) {
+            return null;
+        }
+
+        String group = Files.readString(file.toPath(), StandardCharsets.UTF_8).trim();
+        return group.isEmpty() ? null : group;
+    }
+
+    public PlayerStateCache getCache() {
+        return cache;
+    }
+
+    public TimingStats getCaptureTimings() {
+        return captureTimings;
+    }
+
+    public TimingStats getSaveTimings() {
+        return saveTimings;
+    }
+
+    public TimingStats getLoadTimings() {
+        return loadTimings;
+    }
+
+    public TimingStats getApplyTimings() {
+        return applyTimings;
     }
 
     private boolean isInventorySeparated(String worldName) {
@@ -121,137 +358,177 @@ public class InventoryManager implements Listener {
         return worldGroups.getOrDefault(worldName, worldName);
     }
 
+    private PlayerStateCache.Key getCacheKey(Player player, String group) {
+        return new PlayerStateCache.Key(player.getUniqueId(), group, separateGamemodes ? player.getGameMode().name() : "");
+    }
+
+    // Only the in-memory cache is updated, the snapshot reaches the disk with the next flush or when it is evicted
     private void savePlayerData(Player player, String group) {
-        CompletableFuture.runAsync(() -> {
-            File playerFile = getPlayerFile(player.getUniqueId(), group);
-            YamlConfiguration config = new YamlConfiguration();
-
-            String gmPrefix = separateGamemodes ? player.getGameMode().name() + "." : "";
-
-            config.set(gmPrefix + "inventory", player.getInventory().getContents());
-            config.set(gmPrefix + "armor", player.getInventory().getArmorContents());
-            config.set(gmPrefix + "offhand", player.getInventory().getItemInOffHand());
-            config.set(gmPrefix + "enderchest", player.getEnderChest().getContents());
-
-            config.set(gmPrefix + "health", player.getHealth());
-            config.set(gmPrefix + "max-health", player.getMaxHealth());
-            config.set(gmPrefix + "food", player.getFoodLevel());
-            config.set(gmPrefix + "saturation", player.getSaturation());
-            config.set(gmPrefix + "exp", player.getExp());
-            config.set(gmPrefix + "level", player.getLevel());
-
-            List<Map<String, Object>> effects = new ArrayList<>();
-            for (PotionEffect effect : player.getActivePotionEffects()) {
-                Map<String, Object> effectData = new HashMap<>();
-                effectData.put("type", effect.getType().getKey().getKey());
-                effectData.put("duration", effect.getDuration());
-                effectData.put("amplifier", effect.getAmplifier());
-                effectData.put("ambient", effect.isAmbient());
-                effectData.put("particles", effect.hasParticles());
-                effects.add(effectData);
+        // While a load is still pending the player holds the previous group's items, which were saved already
+        if (pendingLoads.containsKey(player.getUniqueId())) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        PlayerSnapshot snapshot = PlayerSnapshot.capture(player);
+        captureTimings.record(System.nanoTime() - started);
+
+        writeDirty(cache.put(getCacheKey(player, group), snapshot));
+    }
+
+    // Cached state is applied right away. Otherwise the state is read on the player's IO lane, or taken from a prefetch
+    // still running, and applied on the main thread unless a newer load for the same player was started meanwhile.
+    private void loadPlayerData(Player player, String group) {
+        UUID playerId = player.getUniqueId();
+        PlayerStateCache.Key key = getCacheKey(player, group);
+        if (cache.contains(key)) {
+            pendingLoads.remove(playerId);
+            applySnapshot(player, cache.get(key));
+            return;
+        }
+
+        long load = ++nextLoad;
+        pendingLoads.put(playerId, load);
+
+        fetch(key).whenComplete((snapshot, error) -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+            if (!pendingLoads.remove(playerId, load) || !player.isOnline()) {
+                return;
             }
-            config.set(gmPrefix + "effects", effects);
 
+            if (error != null) {
+                plugin.getLogger().warning("Failed to load inventory for " + player.getName() + ": " + error.getMessage());
+            }
+            applySnapshot(player, error == null ? snapshot : null);
+        }));
+    }
+
+    // Reads one state into the cache on the player's IO lane, behind their earlier saves. Callers asking for the same
+    // state while it is read share the read.
+    private CompletableFuture<PlayerSnapshot> fetch(PlayerStateCache.Key key) {
+        long generation = cache.getGeneration();
+        CompletableFuture<PlayerSnapshot> future = fetches.computeIfAbsent(key, k -> CompletableFuture.supplyAsync(() -> {
+            if (cache.contains(k)) {
+                return cache.get(k);
+            }
+
+            long started = System.nanoTime();
             try {
-                config.save(playerFile);
+                PlayerSnapshot snapshot = readSnapshot(getPlayerFile(k.playerId(), k.group()), k.gameMode());
+                cache.putLoaded(k, snapshot, generation);
+                return cache.contains(k) ? cache.get(k) : snapshot;
             } catch (IOException e) {
-                plugin.getLogger().warning("Failed to save inventory for " + player.getName() + ": " + e.getMessage());
+                throw new CompletionException(e);
+            } finally {
+                loadTimings.record(System.nanoTime() - started);
             }
-        });
+        }, ioExecutor.lane(k.playerId())));
+        future.whenComplete((snapshot, error) -> fetches.remove(key, future));
+        return future;
     }
 
-    private void loadPlayerData(Player player, String group) {
-        File playerFile = getPlayerFile(player.getUniqueId(), group);
-
-        if (!playerFile.exists()) {
+    private void applySnapshot(Player player, PlayerSnapshot snapshot) {
+        long started = System.nanoTime();
+        if (snapshot == null) {
             clearPlayerData(player);
-            return;
+        } else {
+            snapshot.apply(player);
         }
+        applyTimings.record(System.nanoTime() - started);
+    }
 
-        YamlConfiguration config = YamlConfiguration.loadConfiguration(playerFile);
-        String gmPrefix = separateGamemodes ? player.getGameMode().name() + "." : "";
+    // Queues writes for the matching dirty entries, one per player file
+    private void flush(Predicate<PlayerStateCache.Key> filter) {
+        writeDirty(cache.drainDirty(filter));
+    }
 
-        if (!config.contains(gmPrefix + "inventory")) {
-            clearPlayerData(player);
+    // Every write of a player goes to their lane. A read queued there earlier may still see the older file, the
+    // cache drops its result because the unwritten snapshot stays pinned and is newer than the read.
+    private void writeDirty(List<PlayerStateCache.Dirty> dirty) {
+        if (dirty.isEmpty()) {
             return;
         }
 
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
-            try {
-                @SuppressWarnings("unchecked")
-                List<ItemStack> inventoryList = (List<ItemStack>) config.getList(gmPrefix + "inventory");
-                if (inventoryList != null) {
-                    player.getInventory().setContents(inventoryList.toArray(new ItemStack[0]));
-                }
+        Map<UUID, List<PlayerStateCache.Dirty>> byPlayer = new LinkedHashMap<>();
+        for (PlayerStateCache.Dirty entry : dirty) {
+            byPlayer.computeIfAbsent(entry.key().playerId(), playerId -> new ArrayList<>()).add(entry);
+        }
+        byPlayer.forEach((playerId, entries) -> ioExecutor.execute(playerId, () -> writeEntries(entries)));
+    }
 
-                @SuppressWarnings("unchecked")
-                List<ItemStack> armorList = (List<ItemStack>) config.getList(gmPrefix + "armor");
-                if (armorList != null) {
-                    player.getInventory().setArmorContents(armorList.toArray(new ItemStack[0]));
-                }
+    // IO thread only
+    private void writeEntries(List<PlayerStateCache.Dirty> dirty) {
+        Map<File, List<PlayerStateCache.Dirty>> byFile = new LinkedHashMap<>();
+        for (PlayerStateCache.Dirty entry : dirty) {
+            byFile.computeIfAbsent(getPlayerFile(entry.key().playerId(), entry.key().group()), file -> new ArrayList<>())
+                    .add(entry);
+        }
 
-                ItemStack offhand = config.getItemStack(gmPrefix + "offhand");
-                if (offhand != null) {
-                    player.getInventory().setItemInOffHand(offhand);
+        byFile.forEach((file, entries) -> {
+            long started = System.nanoTime();
+            boolean written = false;
+            try {
+                writeSnapshots(file, entries);
+                written = true;
+            } catch (IOException e) {
+                plugin.getLogger().warning("Failed to save inventory " + file.getName() + ": " + e.getMessage());
+            } finally {
+                for (PlayerStateCache.Dirty entry : entries) {
+                    cache.finishWrite(entry, written);
                 }
+            }
+            saveTimings.record(System.nanoTime() - started);
+        });
+    }
 
-                @SuppressWarnings("unchecked")
-                List<ItemStack> enderList = (List<ItemStack>) config.getList(gmPrefix + "enderchest");
-                if (enderList != null) {
-                    player.getEnderChest().setContents(enderList.toArray(new ItemStack[0]));
-                }
+    // Other gamemodes stored in the same file are carried over as raw bytes
+    private void writeSnapshots(File playerFile, List<PlayerStateCache.Dirty> dirty) throws IOException {
+        Map<String, byte[]> entries = readEntries(playerFile);
+        for (PlayerStateCache.Dirty entry : dirty) {
+            entries.put(entry.key().gameMode(), InventorySerializer.encode(entry.snapshot()));
+        }
+        InventorySerializer.writeFile(playerFile, entries, compress);
+    }
 
-                double maxHealth = config.getDouble(gmPrefix + "max-health", 20.0);
-                player.setMaxHealth(maxHealth);
-                player.setHealth(Math.min(config.getDouble(gmPrefix + "health", 20.0), maxHealth));
-                player.setFoodLevel(config.getInt(gmPrefix + "food", 20));
-                player.setSaturation((float) config.getDouble(gmPrefix + "saturation", 5.0));
-                player.setExp((float) config.getDouble(gmPrefix + "exp", 0));
-                player.setLevel(config.getInt(gmPrefix + "level", 0));
+    // Null when nothing is stored for this group and gamemode
+    private PlayerSnapshot readSnapshot(File playerFile, String gameMode) throws IOException {
+        byte[] data = readEntries(playerFile).get(gameMode);
+        return data == null ? null : InventorySerializer.decode(data);
+    }
 
-                for (PotionEffect effect : player.getActivePotionEffects()) {
-                    player.removePotionEffect(effect.getType());
-                }
+    // IO thread only. A YAML file left by an older version is converted the first time it is read and then removed.
+    private Map<String, byte[]> readEntries(File playerFile) throws IOException {
+        if (playerFile.exists()) {
+            return InventorySerializer.readFile(playerFile);
+        }
 
-                List<Map<?, ?>> effects = config.getMapList(gmPrefix + "effects");
-                for (Map<?, ?> effectData : effects) {
-                    try {
-                        String typeName = (String) effectData.get("type");
-                        PotionEffectType type = Registry.EFFECT.get(
-                                NamespacedKey.minecraft(typeName.toLowerCase()));
-                        if (type != null) {
-                            int duration = ((Number) effectData.get("duration")).intValue();
-                            int amplifier = ((Number) effectData.get("amplifier")).intValue();
-                            Object ambientObj = effectData.get("ambient");
-                            Object particlesObj = effectData.get("particles");
-                            boolean ambient = ambientObj instanceof Boolean ? (Boolean) ambientObj : false;
-                            boolean particles = particlesObj instanceof Boolean ? (Boolean) particlesObj : true;
-                            player.addPotionEffect(new PotionEffect(type, duration, amplifier, ambient, particles));
-                        }
-                    } catch (Exception ignored) {}
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Failed to load inventory for " + player.getName() + ": " + e.getMessage());
-                clearPlayerData(player);
-            }
-        });
+        String name = playerFile.getName();
+        File legacyFile = new File(playerFile.getParentFile(),
+                name.substring(0, name.length() - InventorySerializer.EXTENSION.length()) + InventorySerializer.LEGACY_EXTENSION);
+        if (!legacyFile.exists()) {
+            return new LinkedHashMap<>();
+        }
+
+        Map<String, byte[]> entries = InventorySerializer.convertYaml(YamlConfiguration.loadConfiguration(legacyFile));
+        InventorySerializer.writeFile(playerFile, entries, compress);
+        if (!legacyFile.delete()) {
+            plugin.getLogger().warning("Could not delete migrated inventory file " + legacyFile.getPath());
+        }
+        return entries;
     }
 
     private void clearPlayerData(Player player) {
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
-            player.getInventory().clear();
-            player.getInventory().setArmorContents(new ItemStack[4]);
-            player.getInventory().setItemInOffHand(null);
-            player.getEnderChest().clear();
-            player.setHealth(20.0);
-            player.setFoodLevel(20);
-            player.setSaturation(5.0f);
-            player.setExp(0);
-            player.setLevel(0);
-            for (PotionEffect effect : player.getActivePotionEffects()) {
-                player.removePotionEffect(effect.getType());
-            }
-        });
+        player.getInventory().clear();
+        player.getInventory().setArmorContents(new ItemStack[4]);
+        player.getInventory().setItemInOffHand(null);
+        player.getEnderChest().clear();
+        player.setHealth(20.0);
+        player.setFoodLevel(20);
+        player.setSaturation(5.0f);
+        player.setExp(0);
+        player.setLevel(0);
+        for (PotionEffect effect : player.getActivePotionEffects()) {
+            player.removePotionEffect(effect.getType());
+        }
     }
 
     private File getPlayerFile(UUID playerId, String group) {
@@ -259,6 +536,6 @@ public class InventoryManager implements Listener {
         if (!groupFolder.exists()) {
             groupFolder.mkdirs();
         }
-        return new File(groupFolder, playerId.toString() + ".yml");
+        return new File(groupFolder, playerId.toString() + InventorySerializer.EXTENSION);
     }
-}
\ No newline at end of file
+}
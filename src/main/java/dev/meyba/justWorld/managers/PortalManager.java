@@ -1,39 +1,124 @@
 package dev.meyba.justWorld.managers;
 
 import dev.meyba.justWorld.JustWorld;
+import dev.meyba.justWorld.other.PortalDestinationCache;
+import dev.meyba.justWorld.other.PortalRegion;
+import dev.meyba.justWorld.other.PortalRegionIndex;
+import dev.meyba.justWorld.utils.ChunkUtil;
 import org.bukkit.Bukkit;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
+import org.bukkit.Material;
 import org.bukkit.PortalType;
 import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
 
 public class PortalManager implements Listener {
+    private static final long SAVE_DELAY_MS = 1000;
+    private static final int MAX_SEARCH_RADIUS = 16;
+    private static final int NETHER_FALLBACK_Y = 32;
+
     private final JustWorld plugin;
     private final File portalsFile;
-    private final Map<String, PortalLink> netherLinks;
-    private final Map<String, PortalLink> endLinks;
+    private final AtomicReference<LinkTable> links;
+    private final ScheduledThreadPoolExecutor saveExecutor;
+    private final AtomicBoolean saveScheduled;
+    private final Executor mainThread;
+    private final PortalDestinationCache destinationCache;
+    private final Map<ChunkTicket, Long> prewarmTickets;
+    private final Set<String> prewarmingWorlds;
     private final boolean enabled;
+    private BukkitTask prewarmTask;
+    private int prewarmCursor;
 
     public PortalManager(JustWorld plugin) {
         this.plugin = plugin;
         this.portalsFile = new File(plugin.getDataFolder(), "portals.yml");
-        this.netherLinks = new HashMap<>();
-        this.endLinks = new HashMap<>();
+        this.links = new AtomicReference<>(new LinkTable(Map.of(), Map.of(), Map.of(), PortalRegionIndex.EMPTY));
+        this.saveExecutor = new ScheduledThreadPoolExecutor(1, runnable -> new Thread(runnable, "JustWorld-Portals"));
+        this.saveExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.saveScheduled = new AtomicBoolean(false);
+        this.mainThread = task -> plugin.getServer().getScheduler().runTask(plugin, task);
+        this.destinationCache = new PortalDestinationCache(plugin.getConfig().getInt("portals.destination-cache-size", 1024));
+        this.prewarmTickets = new HashMap<>();
+        this.prewarmingWorlds = new HashSet<>();
         this.enabled = plugin.getConfig().getBoolean("portals.enabled", true);
         loadPortalLinks();
+
+        if (enabled && plugin.getConfig().getBoolean("portals.prewarm-enabled", true)) {
+            long interval = Math.max(1, plugin.getConfig().getLong("portals.prewarm-interval", 10));
+            prewarmTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::prewarmTick, interval, interval);
+        }
+    }
+
+    public void shutdown() {
+        if (prewarmTask != null) {
+            prewarmTask.cancel();
+            prewarmTask = null;
+        }
+        prewarmTickets.keySet().forEach(this::releaseTicket);
+        prewarmTickets.clear();
+
+        // A pending debounced save is written right away instead of after its delay
+        if (saveScheduled.get()) {
+            saveExecutor.execute(this::writePortalLinks);
+        }
+        saveExecutor.shutdown();
+        try {
+            saveExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -45,12 +130,13 @@ public class PortalManager implements Listener {
         if (fromWorld == null) return;
 
         String fromWorldName = fromWorld.getName();
+        LinkTable table = links.get();
 
         final PortalLink link;
         if (event.getCause() == PlayerTeleportEvent.TeleportCause.NETHER_PORTAL) {
-            link = netherLinks.get(fromWorldName);
+            link = table.nether().get(fromWorldName);
         } else if (event.getCause() == PlayerTeleportEvent.TeleportCause.END_PORTAL) {
-            link = endLinks.get(fromWorldName);
+            link = table.end().get(fromWorldName);
         } else {
             link = null;
         }
@@ -58,14 +144,14 @@ public class PortalManager implements Listener {
         if (link == null) return;
 
         String targetWorldName = link.targetWorld();
+        plugin.getInventoryManager().prefetch(player, targetWorldName);
         World targetWorld = Bukkit.getWorld(targetWorldName);
 
         if (targetWorld == null) {
-            plugin.getWorldManager().loadWorld(targetWorldName).thenAccept(loaded -> {
+            PlayerTeleportEvent.TeleportCause cause = event.getCause();
+            plugin.getWorldManager().runWhenLoaded(targetWorldName, player, loaded -> {
                 if (loaded != null) {
-                    plugin.getServer().getScheduler().runTask(plugin, () -> {
-                        teleportToWorld(player, loaded, event.getCause());
-                    });
+                    teleportToWorld(player, loaded, link, cause);
                 } else {
                     plugin.getMessageUtil().send(player, "portal-world-not-found", "{world}", targetWorldName);
                 }
@@ -75,88 +161,519 @@ public class PortalManager implements Listener {
         }
 
         event.setCancelled(true);
-        teleportToWorld(player, targetWorld, event.getCause());
+        teleportToWorld(player, targetWorld, link, event.getCause());
     }
 
-    private void teleportToWorld(Player player, World targetWorld, PlayerTeleportEvent.TeleportCause cause) {
-        Location from = player.getLocation();
-        Location target;
+    // Region portals trigger when a player walks into one, the index makes each block change a single cell lookup
+    @EventHandler(priority = EventPriority.HIGH, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent event) {
+        if (!enabled) return;
 
-        if (cause == PlayerTeleportEvent.TeleportCause.NETHER_PORTAL) {
-            double ratio;
-            if (from.getWorld() != null && from.getWorld().getEnvironment() == World.Environment.NETHER) {
-                ratio = 8.0;
-            } else if (targetWorld.getEnvironment() == World.Environment.NETHER) {
-                ratio = 0.125;
-            } else {
-                ratio = 1.0;
+        Location to = event.getTo();
+        Location from = event.getFrom();
+        if (to == null || (to.getBlockX() == from.getBlockX() && to.getBlockY() == from.getBlockY()
+                && to.getBlockZ() == from.getBlockZ() && to.getWorld() == from.getWorld())) {
+            return;
+        }
+
+        PortalRegionIndex index = links.get().regionIndex();
+        if (index.isEmpty() || to.getWorld() == null) return;
+
+        String worldName = to.getWorld().getName();
+        PortalRegion region = index.find(worldName, to.getBlockX(), to.getBlockY(), to.getBlockZ());
+        if (region == null || region == index.find(worldName, from.getBlockX(), from.getBlockY(), from.getBlockZ())) {
+            return;
+        }
+
+        Player player = event.getPlayer();
+        plugin.getInventoryManager().prefetch(player, region.targetWorld());
+        plugin.getWorldManager().runWhenLoaded(region.targetWorld(), player, targetWorld -> {
+            if (targetWorld == null) {
+                plugin.getMessageUtil().send(player, "portal-world-not-found", "{world}", region.targetWorld());
+                return;
             }
+            teleport(player, region.destination() != null
+                    ? region.destination().toLocation(targetWorld)
+                    : targetWorld.getSpawnLocation());
+        });
+    }
+
+    private void teleportToWorld(Player player, World targetWorld, PortalLink link, PlayerTeleportEvent.TeleportCause cause) {
+        Location target = getDestination(player.getLocation(), targetWorld, link, cause);
+        if (cause != PlayerTeleportEvent.TeleportCause.NETHER_PORTAL || link.destination() != null) {
+            teleport(player, target);
+            return;
+        }
 
-            double x = from.getX() * ratio;
-            double z = from.getZ() * ratio;
-            double y = Math.min(Math.max(from.getY(), targetWorld.getMinHeight() + 1), targetWorld.getMaxHeight() - 1);
+        int radius = getSearchRadius(link);
+        CompletableFuture<Location> destination = findSafeLocationAsync(target, radius);
+        Location cached = destination.getNow(null);
+        if (cached != null) {
+            teleportChecked(player, target, cached, radius);
+            return;
+        }
+        destination.thenAccept(safe -> plugin.getServer().getScheduler().runTask(plugin,
+                () -> teleportChecked(player, target, safe, radius)));
+    }
 
-            target = new Location(targetWorld, x, y, z, from.getYaw(), from.getPitch());
-            target = findSafeLocation(target);
+    // A change the listeners did not see may have made the found spot unsafe, so it is checked once more in the
+    // loaded chunk. A failed check drops the column and searches again, the second result is used as it is.
+    private void teleportChecked(Player player, Location target, Location safe, int radius) {
+        World world = safe.getWorld();
+        int x = safe.getBlockX();
+        int y = safe.getBlockY();
+        int z = safe.getBlockZ();
+        if (!world.isChunkLoaded(x >> 4, z >> 4) || isSafeSpot(world, x, y, z)) {
+            teleport(player, safe);
+            return;
+        }
+
+        destinationCache.invalidate(world.getName(), x, z);
+        findSafeLocationAsync(target, radius).thenAccept(retry -> plugin.getServer().getScheduler().runTask(plugin,
+                () -> teleport(player, retry)));
+    }
+
+    // Two free blocks over a solid one, main thread only
+    private static boolean isSafeSpot(World world, int x, int y, int z) {
+        return y > world.getMinHeight() && y + 1 < world.getMaxHeight()
+                && world.getBlockAt(x, y - 1, z).getType().isSolid()
+                && world.getBlockAt(x, y, z).getType().isAir()
+                && world.getBlockAt(x, y + 1, z).getType().isAir();
+    }
+
+    // Where a portal sends a player standing at from, before the safe height search
+    private Location getDestination(Location from, World targetWorld, PortalLink link, PlayerTeleportEvent.TeleportCause cause) {
+        if (link.destination() != null) {
+            return link.destination().toLocation(targetWorld);
+        }
+        if (cause != PlayerTeleportEvent.TeleportCause.NETHER_PORTAL) {
+            return targetWorld.getSpawnLocation();
+        }
+
+        double ratio;
+        if (link.ratio() > 0) {
+            ratio = link.ratio();
+        } else if (from.getWorld() != null && from.getWorld().getEnvironment() == World.Environment.NETHER) {
+            ratio = 8.0;
+        } else if (targetWorld.getEnvironment() == World.Environment.NETHER) {
+            ratio = 0.125;
         } else {
-            target = targetWorld.getSpawnLocation();
+            ratio = 1.0;
         }
 
+        double x = from.getX() * ratio;
+        double z = from.getZ() * ratio;
+        double y = Math.min(Math.max(from.getY(), targetWorld.getMinHeight() + 1), targetWorld.getMaxHeight() - 1);
+
+        return new Location(targetWorld, x, y, z, from.getYaw(), from.getPitch());
+    }
+
+    private void teleport(Player player, Location target) {
+        if (!player.isOnline()) return;
+
         player.teleport(target);
-        plugin.getMessageUtil().send(player, "portal-teleported", "{world}", targetWorld.getName());
+        plugin.getMessageUtil().send(player, "portal-teleported", "{world}", target.getWorld().getName());
     }
 
-    private Location findSafeLocation(Location location) {
+    // Cached chunks resolve immediately, otherwise the whole target chunk is searched once and kept for later use.
+    // When the column itself has no safe spot, the nearest one within the radius is used.
+    private CompletableFuture<Location> findSafeLocationAsync(Location location, int radius) {
         World world = location.getWorld();
-        if (world == null) return location;
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+
+        return getChunkHeights(world, x, z)
+                .thenCompose(heights -> {
+                    int y = heights[PortalDestinationCache.columnIndex(x, z)];
+                    if (isSafeHeight(y) || radius <= 0) {
+                        return CompletableFuture.completedFuture(safeLocation(location, x, y, z));
+                    }
+                    // Neighbouring chunks may have to be loaded, which has to start from the main thread
+                    return CompletableFuture.supplyAsync(() -> searchAround(location, radius), mainThread)
+                            .thenCompose(search -> search);
+                })
+                .exceptionally(e -> {
+                    plugin.getLogger().warning("Could not search a safe portal location in " + world.getName() + ": " + e.getMessage());
+                    return location;
+                });
+    }
 
+    private CompletableFuture<Location> searchAround(Location location, int radius) {
+        World world = location.getWorld();
         int x = location.getBlockX();
         int z = location.getBlockZ();
 
-        int y;
-        if (world.getEnvironment() == World.Environment.NETHER) {
-            y = 32;
-            for (int checkY = 32; checkY < 120; checkY++) {
-                if (world.getBlockAt(x, checkY, z).getType().isAir() &&
-                    world.getBlockAt(x, checkY + 1, z).getType().isAir() &&
-                    !world.getBlockAt(x, checkY - 1, z).getType().isAir()) {
-                    y = checkY;
-                    break;
+        // Each chunk is checked for invalidated columns only where it overlaps the searched square
+        Map<Long, CompletableFuture<short[]>> chunks = new HashMap<>();
+        for (int chunkX = (x - radius) >> 4; chunkX <= (x + radius) >> 4; chunkX++) {
+            for (int chunkZ = (z - radius) >> 4; chunkZ <= (z + radius) >> 4; chunkZ++) {
+                int minX = Math.max(x - radius, chunkX << 4);
+                int minZ = Math.max(z - radius, chunkZ << 4);
+                int maxX = Math.min(x + radius, (chunkX << 4) + 15);
+                int maxZ = Math.min(z + radius, (chunkZ << 4) + 15);
+                chunks.put(ChunkUtil.key(chunkX, chunkZ), destinationCache.get(world.getName(), minX, minZ, maxX, maxZ,
+                        () -> searchChunkAsync(world, minX >> 4, minZ >> 4)));
+            }
+        }
+
+        return CompletableFuture.allOf(chunks.values().toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            int bestX = x;
+            int bestZ = z;
+            int bestY = PortalDestinationCache.NONE;
+            int bestDistance = Integer.MAX_VALUE;
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    int distance = dx * dx + dz * dz;
+                    if (distance >= bestDistance || distance > radius * radius) continue;
+
+                    short[] heights = chunks.get(ChunkUtil.key((x + dx) >> 4, (z + dz) >> 4)).join();
+                    int y = heights[PortalDestinationCache.columnIndex(x + dx, z + dz)];
+                    if (isSafeHeight(y)) {
+                        bestX = x + dx;
+                        bestZ = z + dz;
+                        bestY = y;
+                        bestDistance = distance;
+                    }
                 }
             }
+            return safeLocation(location, bestX, bestY, bestZ);
+        });
+    }
+
+    private CompletableFuture<short[]> getChunkHeights(World world, int blockX, int blockZ) {
+        return destinationCache.get(world.getName(), blockX, blockZ, () -> searchChunkAsync(world, blockX >> 4, blockZ >> 4));
+    }
+
+    private static boolean isSafeHeight(int y) {
+        return y != PortalDestinationCache.UNKNOWN && y != PortalDestinationCache.NONE;
+    }
+
+    private static Location safeLocation(Location location, int x, int y, int z) {
+        double safeY;
+        if (y == PortalDestinationCache.NONE) {
+            safeY = NETHER_FALLBACK_Y;
+        } else if (y == PortalDestinationCache.UNKNOWN) {
+            safeY = location.getY();
         } else {
-            y = world.getHighestBlockYAt(x, z) + 1;
+            safeY = y;
+        }
+        return new Location(location.getWorld(), x + 0.5, safeY, z + 0.5, location.getYaw(), location.getPitch());
+    }
+
+    private int getSearchRadius(PortalLink link) {
+        int radius = link.searchRadius() >= 0 ? link.searchRadius() : plugin.getConfig().getInt("portals.search-radius", 16);
+        return Math.max(0, Math.min(MAX_SEARCH_RADIUS, radius));
+    }
+
+    // The chunk is loaded without blocking where the server supports it, only taking the snapshot runs on the
+    // main thread and the columns are searched on the snapshot from another thread
+    private CompletableFuture<short[]> searchChunkAsync(World world, int chunkX, int chunkZ) {
+        World.Environment environment = world.getEnvironment();
+
+        return ChunkUtil.getChunkAsync(world, chunkX, chunkZ)
+                .thenApply(chunk -> chunk.getChunkSnapshot(true, false, false))
+                .thenApplyAsync(snapshot -> {
+                    short[] heights = new short[256];
+                    for (int localX = 0; localX < 16; localX++) {
+                        for (int localZ = 0; localZ < 16; localZ++) {
+                            heights[PortalDestinationCache.columnIndex(localX, localZ)] =
+                                    (short) findSafeY(snapshot, environment, localX, localZ);
+                        }
+                    }
+                    return heights;
+                });
+    }
+
+    // Each block is read once while walking up, looking for two air blocks above a solid one (not fire or lava)
+    private static int findSafeY(ChunkSnapshot snapshot, World.Environment environment, int localX, int localZ) {
+        if (environment != World.Environment.NETHER) {
+            return snapshot.getHighestBlockYAt(localX, localZ) + 1;
+        }
+
+        Material below = snapshot.getBlockType(localX, 31, localZ);
+        Material feet = snapshot.getBlockType(localX, 32, localZ);
+        for (int checkY = 32; checkY < 120; checkY++) {
+            Material head = snapshot.getBlockType(localX, checkY + 1, localZ);
+            if (below.isSolid() && feet.isAir() && head.isAir()) {
+                return checkY;
+            }
+            below = feet;
+            feet = head;
+        }
+        return PortalDestinationCache.NONE;
+    }
+
+    // Players near a linked portal get the target world loaded and the destination chunk loaded, held and searched
+    // before they step through. Players are visited round robin until the main-thread budget for this run is spent.
+    private void prewarmTick() {
+        releaseExpiredTickets();
+        LinkTable table = links.get();
+        if (table.nether().isEmpty() && table.end().isEmpty()) return;
+
+        List<Player> players = new ArrayList<>(Bukkit.getOnlinePlayers());
+        if (players.isEmpty()) return;
+
+        long budget = (long) (plugin.getConfig().getDouble("portals.prewarm-budget-ms", 1.0) * 1_000_000L);
+        long deadline = System.nanoTime() + budget;
+        for (int i = 0; i < players.size() && (i == 0 || System.nanoTime() < deadline); i++) {
+            prewarmCursor = (prewarmCursor + 1) % players.size();
+            prewarm(players.get(prewarmCursor));
+        }
+    }
+
+    private void prewarm(Player player) {
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        if (world == null) return;
+
+        LinkTable table = links.get();
+        PortalLink netherLink = table.nether().get(world.getName());
+        PortalLink endLink = table.end().get(world.getName());
+        if (netherLink == null && endLink == null) return;
+
+        Material portal = findNearbyPortal(location, netherLink != null, endLink != null);
+        if (portal == null) return;
+
+        PortalLink link = portal == Material.NETHER_PORTAL ? netherLink : endLink;
+        PlayerTeleportEvent.TeleportCause cause = portal == Material.NETHER_PORTAL
+                ? PlayerTeleportEvent.TeleportCause.NETHER_PORTAL
+                : PlayerTeleportEvent.TeleportCause.END_PORTAL;
+
+        String targetWorldName = link.targetWorld();
+        // The player's inventory for the target group is read ahead as well
+        plugin.getInventoryManager().prefetch(player, targetWorldName);
+        World targetWorld = Bukkit.getWorld(targetWorldName);
+        if (targetWorld == null) {
+            if (plugin.getConfig().getBoolean("portals.prewarm-load-worlds", true) && prewarmingWorlds.add(targetWorldName)) {
+                plugin.getWorldManager().loadWorld(targetWorldName).whenComplete((loaded, e) ->
+                        plugin.getServer().getScheduler().runTask(plugin, () -> prewarmingWorlds.remove(targetWorldName)));
+            }
+            return;
+        }
+
+        Location destination = getDestination(location, targetWorld, link, cause);
+        holdChunk(targetWorld, destination.getBlockX() >> 4, destination.getBlockZ() >> 4);
+        if (cause == PlayerTeleportEvent.TeleportCause.NETHER_PORTAL && link.destination() == null) {
+            findSafeLocationAsync(destination, getSearchRadius(link));
+        }
+    }
+
+    // Only already loaded chunks are looked at, so the scan itself never loads anything
+    private Material findNearbyPortal(Location location, boolean nether, boolean end) {
+        World world = location.getWorld();
+        int radius = Math.max(0, Math.min(8, plugin.getConfig().getInt("portals.prewarm-radius", 4)));
+        int blockX = location.getBlockX();
+        int blockY = location.getBlockY();
+        int blockZ = location.getBlockZ();
+        int minY = Math.max(world.getMinHeight(), blockY - 2);
+        int maxY = Math.min(world.getMaxHeight() - 1, blockY + 2);
+
+        for (int x = blockX - radius; x <= blockX + radius; x++) {
+            for (int z = blockZ - radius; z <= blockZ + radius; z++) {
+                if (!world.isChunkLoaded(x >> 4, z >> 4)) continue;
+
+                for (int y = minY; y <= maxY; y++) {
+                    Material type = world.getType(x, y, z);
+                    if ((nether && type == Material.NETHER_PORTAL) || (end && type == Material.END_PORTAL)) {
+                        return type;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // The chunk is loaded asynchronously and then kept with a plugin ticket until nobody has approached it for a while
+    private void holdChunk(World world, int chunkX, int chunkZ) {
+        ChunkTicket ticket = new ChunkTicket(world.getName(), chunkX, chunkZ);
+        long expires = System.currentTimeMillis() + plugin.getConfig().getLong("portals.prewarm-hold-seconds", 30) * 1000L;
+        if (prewarmTickets.put(ticket, expires) != null) return;
+
+        ChunkUtil.getChunkAsync(world, chunkX, chunkZ).thenAccept(chunk -> {
+            if (prewarmTickets.containsKey(ticket)) {
+                world.addPluginChunkTicket(chunkX, chunkZ, plugin);
+            }
+        });
+    }
+
+    private void releaseExpiredTickets() {
+        if (prewarmTickets.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<ChunkTicket, Long>> iterator = prewarmTickets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ChunkTicket, Long> entry = iterator.next();
+            if (entry.getValue() <= now) {
+                releaseTicket(entry.getKey());
+                iterator.remove();
+            }
+        }
+    }
+
+    private void releaseTicket(ChunkTicket ticket) {
+        World world = Bukkit.getWorld(ticket.world());
+        if (world != null) {
+            world.removePluginChunkTicket(ticket.chunkX(), ticket.chunkZ(), plugin);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFromTo(BlockFromToEvent event) {
+        invalidateDestination(event.getToBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockExplode(BlockExplodeEvent event) {
+        event.blockList().forEach(this::invalidateDestination);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityExplode(EntityExplodeEvent event) {
+        event.blockList().forEach(this::invalidateDestination);
+    }
+
+    // Moved blocks change both their old and their new column, the head of an extending piston its own one
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+        invalidateDestination(event.getBlock().getRelative(event.getDirection()));
+        invalidateMoved(event.getBlocks(), event.getDirection());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+        invalidateDestination(event.getBlock().getRelative(event.getDirection()));
+        invalidateMoved(event.getBlocks(), event.getDirection());
+    }
+
+    // Falling sand and gravel, endermen, ravagers and other mobs changing blocks
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    // Fire spreading and ghast fireballs are constant in the nether
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockIgnite(BlockIgniteEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockSpread(BlockSpreadEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    // Obsidian, cobblestone, snow and ice forming
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockForm(BlockFormEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockFade(BlockFadeEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        invalidateDestination(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        String world = event.getWorld().getName();
+        for (BlockState state : event.getBlocks()) {
+            destinationCache.invalidate(world, state.getX(), state.getZ());
         }
+    }
 
-        return new Location(world, x + 0.5, y, z + 0.5, location.getYaw(), location.getPitch());
+    @EventHandler
+    public void onWorldUnload(WorldUnloadEvent event) {
+        destinationCache.invalidateWorld(event.getWorld().getName());
+    }
+
+    private void invalidateDestination(Block block) {
+        destinationCache.invalidate(block.getWorld().getName(), block.getX(), block.getZ());
+    }
+
+    private void invalidateMoved(List<Block> blocks, BlockFace direction) {
+        for (Block block : blocks) {
+            invalidateDestination(block);
+            invalidateDestination(block.getRelative(direction));
+        }
     }
 
     public void setNetherLink(String fromWorld, String toWorld) {
-        netherLinks.put(fromWorld, new PortalLink(toWorld, PortalType.NETHER));
-        savePortalLinksAsync();
+        setLink(fromWorld, new PortalLink(toWorld, PortalType.NETHER));
     }
 
     public void setEndLink(String fromWorld, String toWorld) {
-        endLinks.put(fromWorld, new PortalLink(toWorld, PortalType.ENDER));
-        savePortalLinksAsync();
+        setLink(fromWorld, new PortalLink(toWorld, PortalType.ENDER));
+    }
+
+    public void setLink(String fromWorld, PortalLink link) {
+        updateLinks(table -> table.with(link.type(), fromWorld, link));
     }
 
     public void removeNetherLink(String fromWorld) {
-        netherLinks.remove(fromWorld);
-        savePortalLinksAsync();
+        updateLinks(table -> table.with(PortalType.NETHER, fromWorld, null));
     }
 
     public void removeEndLink(String fromWorld) {
-        endLinks.remove(fromWorld);
-        savePortalLinksAsync();
+        updateLinks(table -> table.with(PortalType.ENDER, fromWorld, null));
+    }
+
+    // False when a region with this name already exists
+    public boolean addRegion(PortalRegion region) {
+        if (links.get().regions().containsKey(region.name())) return false;
+
+        updateLinks(table -> table.withRegion(region.name(), region));
+        return true;
+    }
+
+    // Regions are indexed per 16x16 cell, so their area is capped
+    public long getMaxRegionCells() {
+        return Math.max(1, plugin.getConfig().getLong("portals.region-max-cells", 4096));
+    }
+
+    public boolean removeRegion(String name) {
+        if (!links.get().regions().containsKey(name)) return false;
+
+        updateLinks(table -> table.withRegion(name, null));
+        return true;
     }
 
+    public Map<String, PortalRegion> getAllRegions() {
+        return links.get().regions();
+    }
+
+    // All maps are immutable snapshots, they never change after being returned
     public Map<String, PortalLink> getAllNetherLinks() {
-        return new HashMap<>(netherLinks);
+        return links.get().nether();
     }
 
     public Map<String, PortalLink> getAllEndLinks() {
-        return new HashMap<>(endLinks);
+        return links.get().end();
+    }
+
+    // Readers always see a complete table without locking, writers build a new one and swap it in
+    private void updateLinks(UnaryOperator<LinkTable> update) {
+        links.updateAndGet(update);
+        scheduleSave();
     }
 
     private void loadPortalLinks() {
@@ -171,44 +688,239 @@ public class PortalManager implements Listener {
         }
 
         YamlConfiguration config = YamlConfiguration.loadConfiguration(portalsFile);
+        Map<String, PortalLink> nether = readLinks(config.getConfigurationSection("nether"), PortalType.NETHER);
+        Map<String, PortalLink> end = readLinks(config.getConfigurationSection("end"), PortalType.ENDER);
+        Map<String, PortalRegion> regions = readRegions(config.getConfigurationSection("regions"));
+        links.set(new LinkTable(Collections.unmodifiableMap(nether), Collections.unmodifiableMap(end),
+                Collections.unmodifiableMap(regions), PortalRegionIndex.build(regions.values())));
+
+        plugin.getLogger().info("Loaded " + nether.size() + " nether links, " + end.size() + " end links and "
+                + regions.size() + " portal regions");
+    }
 
-        ConfigurationSection netherSection = config.getConfigurationSection("nether");
-        if (netherSection != null) {
-            netherSection.getKeys(false).forEach(fromWorld -> {
-                String toWorld = netherSection.getString(fromWorld);
-                if (toWorld != null) {
-                    netherLinks.put(fromWorld, new PortalLink(toWorld, PortalType.NETHER));
+    private Map<String, PortalRegion> readRegions(ConfigurationSection section) {
+        Map<String, PortalRegion> result = new LinkedHashMap<>();
+        if (section == null) return result;
+
+        for (String name : section.getKeys(false)) {
+            ConfigurationSection regionSection = section.getConfigurationSection(name);
+            if (regionSection == null) continue;
+
+            String world = regionSection.getString("world");
+            String target = regionSection.getString("target");
+            int[] min = parseInts(regionSection.getString("min"), 3);
+            int[] max = parseInts(regionSection.getString("max"), 3);
+            if (world == null || target == null || min == null || max == null) {
+                plugin.getLogger().warning("Skipping invalid portal region " + name + " in portals.yml");
+                continue;
+            }
+
+            Destination destination = Destination.parse(regionSection.getString("destination"));
+            PortalRegion region;
+            if (regionSection.getString("shape", "CUBOID").equalsIgnoreCase("POLYGON")) {
+                List<String> points = regionSection.getStringList("points");
+                int[] pointsX = new int[points.size()];
+                int[] pointsZ = new int[points.size()];
+                boolean valid = points.size() >= 3;
+                for (int i = 0; i < points.size() && valid; i++) {
+                    int[] point = parseInts(points.get(i), 2);
+                    valid = point != null;
+                    if (valid) {
+                        pointsX[i] = point[0];
+                        pointsZ[i] = point[1];
+                    }
                 }
-            });
+                if (!valid) {
+                    plugin.getLogger().warning("Skipping portal region " + name + " with invalid points in portals.yml");
+                    continue;
+                }
+                region = PortalRegion.polygon(name, world, min[1], max[1], pointsX, pointsZ, target, destination);
+            } else {
+                region = PortalRegion.cuboid(name, world, min[0], min[1], min[2], max[0], max[1], max[2], target, destination);
+            }
+
+            if (PortalRegionIndex.cellCount(region) > getMaxRegionCells()) {
+                plugin.getLogger().warning("Skipping portal region " + name + " in portals.yml, it is larger than portals.region-max-cells");
+                continue;
+            }
+            result.put(name, region);
         }
+        return result;
+    }
+
+    // Comma separated integers, null unless exactly count of them are given
+    public static int[] parseInts(String value, int count) {
+        if (value == null) return null;
+
+        String[] parts = value.split(",");
+        if (parts.length != count) return null;
+        try {
+            int[] result = new int[count];
+            for (int i = 0; i < count; i++) {
+                result[i] = Integer.parseInt(parts[i].trim());
+            }
+            return result;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
 
-        ConfigurationSection endSection = config.getConfigurationSection("end");
-        if (endSection != null) {
-            endSection.getKeys(false).forEach(fromWorld -> {
-                String toWorld = endSection.getString(fromWorld);
+    // Links without settings stay a plain "from: to" entry, links with settings become a section
+    private Map<String, PortalLink> readLinks(ConfigurationSection section, PortalType type) {
+        Map<String, PortalLink> result = new LinkedHashMap<>();
+        if (section == null) return result;
+
+        for (String fromWorld : section.getKeys(false)) {
+            ConfigurationSection linkSection = section.getConfigurationSection(fromWorld);
+            if (linkSection == null) {
+                String toWorld = section.getString(fromWorld);
                 if (toWorld != null) {
-                    endLinks.put(fromWorld, new PortalLink(toWorld, PortalType.ENDER));
+                    result.put(fromWorld, new PortalLink(toWorld, type));
                 }
-            });
+                continue;
+            }
+
+            String toWorld = linkSection.getString("target");
+            if (toWorld == null) continue;
+
+            Destination destination = Destination.parse(linkSection.getString("destination"));
+            result.put(fromWorld, new PortalLink(toWorld, type, linkSection.getDouble("ratio", 0),
+                    destination, linkSection.getInt("search-radius", -1)));
         }
+        return result;
+    }
 
-        plugin.getLogger().info("Loaded " + netherLinks.size() + " nether links and " + endLinks.size() + " end links");
+    // Changes within the delay are written together. The single writer thread keeps writes in order and always
+    // writes the newest table, so a slow write can never overwrite a newer one.
+    private void scheduleSave() {
+        if (saveScheduled.compareAndSet(false, true)) {
+            saveExecutor.schedule(this::writePortalLinks, SAVE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
     }
 
-    private CompletableFuture<Void> savePortalLinksAsync() {
-        return CompletableFuture.runAsync(() -> {
-            YamlConfiguration config = new YamlConfiguration();
+    private void writePortalLinks() {
+        saveScheduled.set(false);
+        LinkTable table = links.get();
 
-            netherLinks.forEach((from, link) -> config.set("nether." + from, link.targetWorld()));
-            endLinks.forEach((from, link) -> config.set("end." + from, link.targetWorld()));
+        YamlConfiguration config = new YamlConfiguration();
+        table.nether().forEach((from, link) -> writeLink(config, "nether." + from, link));
+        table.end().forEach((from, link) -> writeLink(config, "end." + from, link));
+        table.regions().forEach((name, region) -> writeRegion(config, "regions." + name, region));
 
+        File tempFile = new File(portalsFile.getParentFile(), portalsFile.getName() + ".tmp");
+        try {
+            config.save(tempFile);
             try {
-                config.save(portalsFile);
-            } catch (IOException e) {
-                plugin.getLogger().severe("Error saving portals.yml: " + e.getMessage());
+                Files.move(tempFile.toPath(), portalsFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), portalsFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
             }
-        });
+        } catch (IOException e) {
+            plugin.getLogger().severe("Error saving portals.yml: " + e.getMessage());
+        }
+    }
+
+    private static void writeLink(YamlConfiguration config, String path, PortalLink link) {
+        if (!link.hasSettings()) {
+            config.set(path, link.targetWorld());
+            return;
+        }
+
+        config.set(path + ".target", link.targetWorld());
+        if (link.ratio() > 0) {
+            config.set(path + ".ratio", link.ratio());
+        }
+        if (link.destination() != null) {
+            config.set(path + ".destination", link.destination().serialize());
+        }
+        if (link.searchRadius() >= 0) {
+            config.set(path + ".search-radius", link.searchRadius());
+        }
+    }
+
+    private static void writeRegion(YamlConfiguration config, String path, PortalRegion region) {
+        config.set(path + ".world", region.world());
+        config.set(path + ".target", region.targetWorld());
+        config.set(path + ".shape", region.shape().name());
+        config.set(path + ".min", region.minX() + "," + region.minY() + "," + region.minZ());
+        config.set(path + ".max", region.maxX() + "," + region.maxY() + "," + region.maxZ());
+        if (region.shape() == PortalRegion.Shape.POLYGON) {
+            List<String> points = new ArrayList<>();
+            for (int i = 0; i < region.pointsX().length; i++) {
+                points.add(region.pointsX()[i] + "," + region.pointsZ()[i]);
+            }
+            config.set(path + ".points", points);
+        }
+        if (region.destination() != null) {
+            config.set(path + ".destination", region.destination().serialize());
+        }
+    }
+
+    // Ratio 0 picks the vanilla ratio from the environments, search radius -1 uses portals.search-radius
+    public record PortalLink(String targetWorld, PortalType type, double ratio, Destination destination, int searchRadius) {
+        public PortalLink(String targetWorld, PortalType type) {
+            this(targetWorld, type, 0, null, -1);
+        }
+
+        public boolean hasSettings() {
+            return ratio > 0 || destination != null || searchRadius >= 0;
+        }
+    }
+
+    // Fixed arrival point in the target world, kept as coordinates since the world may not be loaded
+    public record Destination(double x, double y, double z, float yaw, float pitch) {
+        public Location toLocation(World world) {
+            return new Location(world, x, y, z, yaw, pitch);
+        }
+
+        public String serialize() {
+            return x + "," + y + "," + z + "," + yaw + "," + pitch;
+        }
+
+        // Accepts x,y,z with optional yaw and pitch, returns null for anything else
+        public static Destination parse(String value) {
+            if (value == null) return null;
+
+            String[] parts = value.split(",");
+            if (parts.length != 3 && parts.length != 5) return null;
+            try {
+                return new Destination(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()),
+                        Double.parseDouble(parts[2].trim()),
+                        parts.length == 5 ? Float.parseFloat(parts[3].trim()) : 0f,
+                        parts.length == 5 ? Float.parseFloat(parts[4].trim()) : 0f);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    private record LinkTable(Map<String, PortalLink> nether, Map<String, PortalLink> end,
+                             Map<String, PortalRegion> regions, PortalRegionIndex regionIndex) {
+        // Copies only the changed map, a null link removes the entry
+        LinkTable with(PortalType type, String fromWorld, PortalLink link) {
+            Map<String, PortalLink> changed = new LinkedHashMap<>(type == PortalType.NETHER ? nether : end);
+            if (link == null) {
+                changed.remove(fromWorld);
+            } else {
+                changed.put(fromWorld, link);
+            }
+            Map<String, PortalLink> snapshot = Collections.unmodifiableMap(changed);
+            return type == PortalType.NETHER
+                    ? new LinkTable(snapshot, end, regions, regionIndex)
+                    : new LinkTable(nether, snapshot, regions, regionIndex);
+        }
+
+        // The spatial index is rebuilt with the region map, a null region removes it
+        LinkTable withRegion(String name, PortalRegion region) {
+            Map<String, PortalRegion> changed = new LinkedHashMap<>(regions);
+            if (region == null) {
+                changed.remove(name);
+            } else {
+                changed.put(name, region);
+            }
+            return new LinkTable(nether, end, Collections.unmodifiableMap(changed), PortalRegionIndex.build(changed.values()));
+        }
     }
 
-    public record PortalLink(String targetWorld, PortalType type) {}
-}
\ No newline at end of file
+    private record ChunkTicket(String world, int chunkX, int chunkZ) {}
+}
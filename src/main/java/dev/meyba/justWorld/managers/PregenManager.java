@@ -0,0 +1,495 @@
+package dev.meyba.justWorld.managers;
+
+import dev.meyba.justWorld.JustWorld;
+import dev.meyba.justWorld.other.PregenArea;
+import dev.meyba.justWorld.other.PregenStats;
+import dev.meyba.justWorld.other.PregenTask;
+import dev.meyba.justWorld.utils.ChunkUtil;
+import dev.meyba.justWorld.utils.RegionUtil;
+import dev.meyba.justWorld.utils.TickMonitor;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.WorldBorder;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PregenManager {
+    private static final int ADJUST_INTERVAL_TICKS = 20;
+    private static final Comparator<PregenTask> SCHEDULE_ORDER = Comparator
+            .comparingInt(PregenTask::getPriority).reversed()
+            .thenComparingLong(PregenTask::getSequence);
+
+    private final JustWorld plugin;
+    private final Map<String, PregenTask> tasks;
+    private final TickMonitor tickMonitor;
+    private final File pregenFile;
+    private CompletableFuture<Void> lastSave;
+    private BukkitTask schedulerTask;
+    private long nextSequence;
+    private int rotation;
+    private int ticksSinceAdjust;
+    private int ticksSinceCheckpoint;
+    private int chunksPerTick;
+    private boolean paused;
+
+    public PregenManager(JustWorld plugin) {
+        this.plugin = plugin;
+        this.tasks = new ConcurrentHashMap<>();
+        this.tickMonitor = new TickMonitor();
+        this.pregenFile = new File(plugin.getDataFolder(), "pregen.yml");
+        this.lastSave = CompletableFuture.completedFuture(null);
+        this.chunksPerTick = plugin.getConfig().getInt("performance.pregen-chunks-per-tick", 4);
+
+        if (!ChunkUtil.isAsyncSupported()) {
+            plugin.getLogger().info("Async chunk loading not available, pregeneration will load chunks synchronously");
+        }
+    }
+
+    public boolean start(CommandSender sender, World world, PregenArea area, PregenTask.Order order, int priority) {
+        return start(sender, world, area, order, priority, false, 0);
+    }
+
+    private boolean start(CommandSender sender, World world, PregenArea area,
+                          PregenTask.Order order, int priority, boolean paused, long startIndex) {
+        String worldName = world.getName();
+        if (tasks.containsKey(worldName)) {
+            return false;
+        }
+
+        PregenTask task = new PregenTask(worldName, area, order, priority, nextSequence++,
+                RegionUtil.getRegionFolder(world), startIndex, sender);
+        if (paused) {
+            task.setState(PregenTask.State.PAUSED);
+        }
+
+        tasks.put(worldName, task);
+        promoteQueued();
+        startScheduler();
+        saveCheckpointsAsync();
+        return true;
+    }
+
+    public boolean stop(String worldName) {
+        PregenTask task = tasks.remove(worldName);
+        if (task == null) {
+            return false;
+        }
+
+        logSummary(task, "stopped");
+        promoteQueued();
+        stopSchedulerIfIdle();
+        saveCheckpointsAsync();
+        return true;
+    }
+
+    public boolean pause(String worldName) {
+        PregenTask task = tasks.get(worldName);
+        if (task == null || task.getState() == PregenTask.State.PAUSED) {
+            return false;
+        }
+
+        task.setState(PregenTask.State.PAUSED);
+        promoteQueued();
+        saveCheckpointsAsync();
+        return true;
+    }
+
+    public boolean resume(String worldName) {
+        PregenTask task = tasks.get(worldName);
+        if (task == null || task.getState() != PregenTask.State.PAUSED) {
+            return false;
+        }
+
+        task.setState(PregenTask.State.QUEUED);
+        promoteQueued();
+        saveCheckpointsAsync();
+        return true;
+    }
+
+    // Chunk centre of the world spawn, the default centre of a job
+    public int[] getSpawnChunk(World world) {
+        Location spawn = world.getSpawnLocation();
+        return new int[]{spawn.getBlockX() >> 4, spawn.getBlockZ() >> 4};
+    }
+
+    // Square covering every chunk that touches the world border
+    public PregenArea fitBorder(World world) {
+        WorldBorder border = world.getWorldBorder();
+        Location center = border.getCenter();
+        double half = border.getSize() / 2.0;
+        int minX = (int) Math.floor((center.getX() - half) / 16.0);
+        int maxX = (int) Math.floor((center.getX() + half - 1) / 16.0);
+        int minZ = (int) Math.floor((center.getZ() - half) / 16.0);
+        int maxZ = (int) Math.floor((center.getZ() + half - 1) / 16.0);
+        int centerX = Math.floorDiv(minX + maxX, 2);
+        int centerZ = Math.floorDiv(minZ + maxZ, 2);
+        return new PregenArea(PregenArea.Shape.RECTANGLE, centerX, centerZ,
+                Math.max(maxX - centerX, centerX - minX), Math.max(maxZ - centerZ, centerZ - minZ));
+    }
+
+    public int getMaxRadius() {
+        return plugin.getConfig().getInt("performance.pregen-max-radius", 10000);
+    }
+
+    public boolean isRunning(String worldName) {
+        return tasks.containsKey(worldName);
+    }
+
+    public PregenTask getTask(String worldName) {
+        return tasks.get(worldName);
+    }
+
+    public Collection<PregenTask> getTasks() {
+        return tasks.values();
+    }
+
+    public int getChunksPerTick() {
+        return chunksPerTick;
+    }
+
+    public double getMspt() {
+        return tickMonitor.getMspt();
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void resumeJobs() {
+        if (!pregenFile.exists()) {
+            return;
+        }
+
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(pregenFile);
+        ConfigurationSection jobsSection = config.getConfigurationSection("jobs");
+        if (jobsSection == null) return;
+
+        jobsSection.getKeys(false).forEach(worldName -> {
+            ConfigurationSection jobSection = jobsSection.getConfigurationSection(worldName);
+            if (jobSection == null) return;
+
+            int radius = jobSection.getInt("radius");
+            PregenArea.Shape shape = PregenArea.Shape.SQUARE;
+            try {
+                shape = PregenArea.Shape.valueOf(jobSection.getString("shape", "SQUARE").toUpperCase());
+            } catch (IllegalArgumentException ignored) {
+            }
+            PregenArea area = new PregenArea(shape, jobSection.getInt("centerX"), jobSection.getInt("centerZ"),
+                    jobSection.getInt("radiusX", radius), jobSection.getInt("radiusZ", radius));
+            long index = jobSection.getLong("index");
+            int priority = jobSection.getInt("priority", 5);
+            boolean wasPaused = jobSection.getBoolean("paused", false);
+            PregenTask.Order order = PregenTask.Order.SPIRAL;
+            try {
+                order = PregenTask.Order.valueOf(jobSection.getString("order", "SPIRAL").toUpperCase());
+            } catch (IllegalArgumentException ignored) {
+            }
+            PregenTask.Order resumeOrder = order;
+
+            plugin.getWorldManager().loadWorld(worldName).thenAccept(world -> {
+                if (world == null) {
+                    plugin.getLogger().warning("Dropping pregeneration job for missing world " + worldName);
+                    return;
+                }
+
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    if (start(Bukkit.getConsoleSender(), world, area, resumeOrder, priority, wasPaused, index)) {
+                        plugin.getLogger().info("Resumed pregeneration of " + worldName + " at chunk " + index);
+                    }
+                });
+            });
+        });
+    }
+
+    public void shutdown() {
+        if (schedulerTask != null) {
+            schedulerTask.cancel();
+            schedulerTask = null;
+        }
+
+        YamlConfiguration config = createCheckpointConfig();
+        lastSave.join();
+        saveCheckpoints(config);
+
+        tasks.clear();
+    }
+
+    private void startScheduler() {
+        if (schedulerTask != null) {
+            return;
+        }
+
+        tickMonitor.reset();
+        ticksSinceAdjust = 0;
+        ticksSinceCheckpoint = 0;
+        chunksPerTick = plugin.getConfig().getInt("performance.pregen-chunks-per-tick", 4);
+        schedulerTask = plugin.getServer().getScheduler().runTaskTimer(plugin, this::tick, 1L, 1L);
+    }
+
+    private void stopSchedulerIfIdle() {
+        if (schedulerTask != null && tasks.isEmpty()) {
+            schedulerTask.cancel();
+            schedulerTask = null;
+        }
+    }
+
+    // Queued jobs take free slots by priority, then in the order they were started
+    private void promoteQueued() {
+        int maxActive = Math.max(1, plugin.getConfig().getInt("performance.pregen-max-active-jobs", 2));
+        long active = tasks.values().stream()
+                .filter(task -> task.getState() == PregenTask.State.RUNNING)
+                .count();
+
+        List<PregenTask> queued = tasks.values().stream()
+                .filter(task -> task.getState() == PregenTask.State.QUEUED)
+                .sorted(SCHEDULE_ORDER)
+                .toList();
+
+        for (PregenTask task : queued) {
+            if (active >= maxActive) break;
+            task.setState(PregenTask.State.RUNNING);
+            active++;
+        }
+    }
+
+    // Additive increase while under the MSPT target, halve the rate as soon as the server falls behind
+    private void adjustRate() {
+        int pauseAbovePlayers = plugin.getConfig().getInt("performance.pregen-pause-above-players", -1);
+        paused = pauseAbovePlayers >= 0 && Bukkit.getOnlinePlayers().size() > pauseAbovePlayers;
+        if (paused) {
+            return;
+        }
+
+        double targetMspt = plugin.getConfig().getDouble("performance.pregen-target-mspt", 40.0);
+        int minChunks = Math.max(1, plugin.getConfig().getInt("performance.pregen-min-chunks-per-tick", 1));
+        int maxChunks = Math.max(minChunks, plugin.getConfig().getInt("performance.pregen-max-chunks-per-tick", 32));
+
+        if (!tickMonitor.isExact()) {
+            targetMspt = Math.max(targetMspt, 55.0);
+        }
+
+        if (tickMonitor.getMspt() > targetMspt) {
+            chunksPerTick = Math.max(minChunks, chunksPerTick / 2);
+        } else {
+            chunksPerTick = Math.min(maxChunks, chunksPerTick + 1);
+        }
+    }
+
+    private void tick() {
+        tickMonitor.tick();
+        if (++ticksSinceAdjust >= ADJUST_INTERVAL_TICKS) {
+            ticksSinceAdjust = 0;
+            adjustRate();
+            tasks.values().forEach(task -> task.getStats().sample(task.getCompleted().get(),
+                    !paused && task.getState() == PregenTask.State.RUNNING));
+        }
+        if (++ticksSinceCheckpoint >= plugin.getConfig().getInt("performance.pregen-checkpoint-interval", 600)) {
+            ticksSinceCheckpoint = 0;
+            saveCheckpointsAsync();
+        }
+
+        List<PregenTask> running = new ArrayList<>();
+        for (PregenTask task : tasks.values()) {
+            if (Bukkit.getWorld(task.getWorldName()) == null) {
+                stop(task.getWorldName());
+            } else if (task.getState() == PregenTask.State.RUNNING) {
+                running.add(task);
+            }
+        }
+
+        if (!paused && !running.isEmpty()) {
+            running.sort(SCHEDULE_ORDER);
+            dispatch(running);
+        }
+
+        for (PregenTask task : running) {
+            reportProgress(task);
+
+            if (task.isFinished() && tasks.remove(task.getWorldName(), task)) {
+                promoteQueued();
+                stopSchedulerIfIdle();
+                saveCheckpointsAsync();
+                logSummary(task, "finished");
+                plugin.getMessageUtil().send(task.getSender(), "pregen-complete",
+                        "{world}", task.getWorldName(), "{chunks}", String.valueOf(task.getTotalChunks()));
+            }
+        }
+    }
+
+    // One shared budget per tick: higher priorities are served first, jobs of equal priority take turns
+    // chunk by chunk, and whatever a blocked job cannot use flows on to the next one
+    private void dispatch(List<PregenTask> running) {
+        int maxPending = plugin.getConfig().getInt("performance.pregen-max-pending", 16);
+        int pending = running.stream().mapToInt(task -> task.getPending().get()).sum();
+        int budget = chunksPerTick;
+        rotation++;
+
+        int tierStart = 0;
+        while (tierStart < running.size() && budget > 0 && pending < maxPending) {
+            int tierEnd = tierStart;
+            while (tierEnd < running.size() && running.get(tierEnd).getPriority() == running.get(tierStart).getPriority()) {
+                tierEnd++;
+            }
+
+            List<PregenTask> tier = running.subList(tierStart, tierEnd);
+            int offset = rotation % tier.size();
+            boolean progressed = true;
+
+            while (progressed && budget > 0 && pending < maxPending) {
+                progressed = false;
+                for (int i = 0; i < tier.size() && budget > 0 && pending < maxPending; i++) {
+                    PregenTask task = tier.get((i + offset) % tier.size());
+                    long started = System.nanoTime();
+                    int result = dispatchNext(task);
+                    task.getStats().addMainThreadNanos(System.nanoTime() - started);
+                    if (result >= 0) {
+                        budget--;
+                        pending += result;
+                        progressed = true;
+                    }
+                }
+            }
+
+            tierStart = tierEnd;
+        }
+    }
+
+    // Returns -1 if the job is blocked, 0 if its next chunk already existed, 1 if a generation request was sent
+    private int dispatchNext(PregenTask task) {
+        long key = task.poll();
+        if (key == PregenTask.NONE) {
+            return -1;
+        }
+
+        World world = Bukkit.getWorld(task.getWorldName());
+        long index = task.getLastIndex();
+        int chunkX = ChunkUtil.keyX(key);
+        int chunkZ = ChunkUtil.keyZ(key);
+
+        task.markDispatched(index);
+
+        if (task.lastMayExist() && world.isChunkGenerated(chunkX, chunkZ)) {
+            task.getStats().recordSkipped(1);
+            task.markCompleted(index);
+            return 0;
+        }
+
+        boolean wasLoaded = world.isChunkLoaded(chunkX, chunkZ);
+        long requested = System.nanoTime();
+
+        ChunkUtil.getChunkAsync(world, chunkX, chunkZ).whenComplete((chunk, ex) -> {
+            long latency = System.nanoTime() - requested;
+            if (ex != null) {
+                task.getStats().recordFailed(latency);
+                plugin.getLogger().warning("Failed to generate chunk " + chunkX + ", " + chunkZ +
+                        " in " + task.getWorldName() + ": " + ex.getMessage());
+            } else {
+                task.getStats().recordGenerated(latency);
+            }
+
+            if (!wasLoaded) {
+                releaseChunk(task, world, chunkX, chunkZ);
+            }
+
+            task.markCompleted(index);
+        });
+        return 1;
+    }
+
+    private void releaseChunk(PregenTask task, World world, int chunkX, int chunkZ) {
+        if (Bukkit.isPrimaryThread()) {
+            world.unloadChunkRequest(chunkX, chunkZ);
+        } else {
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                long started = System.nanoTime();
+                world.unloadChunkRequest(chunkX, chunkZ);
+                task.getStats().addMainThreadNanos(System.nanoTime() - started);
+            });
+        }
+    }
+
+    private void reportProgress(PregenTask task) {
+        int progress = task.getProgressPercent();
+        if (progress / 10 > task.getLastProgress()) {
+            task.setLastProgress(progress / 10);
+            CommandSender sender = task.getSender();
+            PregenStats stats = task.getStats();
+            sender.sendMessage(plugin.getMessageUtil().getPrefix() + ChatColor.GRAY + "ᴘʀᴇɢᴇɴ " + task.getWorldName() + ": " +
+                    progress + "% (" + task.getCompleted().get() + "/" + task.getTotalChunks() + ", " +
+                    String.format("%.1f", stats.getAverageRate()) + " ᴄʜᴜɴᴋꜱ/ꜱ, ᴇᴛᴀ " +
+                    PregenStats.formatDuration(stats.getEtaSeconds(getRemaining(task))) + ")");
+        }
+    }
+
+    public long getRemaining(PregenTask task) {
+        return Math.max(0, task.getTotalChunks() - task.getCompleted().get());
+    }
+
+    // Plain console line so overnight jobs can be sized from the server log
+    private void logSummary(PregenTask task, String outcome) {
+        PregenStats stats = task.getStats();
+        long[] histogram = stats.getLatencyHistogram();
+        StringBuilder buckets = new StringBuilder();
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] == 0) continue;
+            if (buckets.length() > 0) buckets.append(", ");
+            buckets.append(i == histogram.length - 1 ? ">=" + (1L << (i - 1)) : "<" + (1L << i)).append("ms: ").append(histogram[i]);
+        }
+
+        plugin.getLogger().info(String.format(
+                "Pregeneration of %s %s: %d/%d chunks, %d generated, %d skipped, %d failed, %.1f chunks/s average, " +
+                        "%d ms main thread, latency p50 %d ms / p95 %d ms / p99 %d ms / max %d ms [%s]",
+                task.getWorldName(), outcome, task.getCompleted().get(), task.getTotalChunks(),
+                stats.getGenerated(), stats.getSkipped(), stats.getFailed(), stats.getAverageRate(),
+                stats.getMainThreadMillis(), stats.getLatencyPercentile(0.5), stats.getLatencyPercentile(0.95),
+                stats.getLatencyPercentile(0.99), stats.getMaxLatencyMillis(), buckets));
+    }
+
+    private YamlConfiguration createCheckpointConfig() {
+        YamlConfiguration config = new YamlConfiguration();
+
+        tasks.forEach((worldName, task) -> {
+            String path = "jobs." + worldName + ".";
+            PregenArea area = task.getArea();
+            config.set(path + "shape", area.shape().name());
+            config.set(path + "centerX", area.centerX());
+            config.set(path + "centerZ", area.centerZ());
+            config.set(path + "radiusX", area.radiusX());
+            config.set(path + "radiusZ", area.radiusZ());
+            config.set(path + "order", task.getOrder().name());
+            config.set(path + "priority", task.getPriority());
+            config.set(path + "paused", task.getState() == PregenTask.State.PAUSED);
+            config.set(path + "index", task.getCheckpointIndex());
+        });
+
+        return config;
+    }
+
+    // Snapshot on the calling thread, write in order behind any save still in progress
+    private void saveCheckpointsAsync() {
+        YamlConfiguration config = createCheckpointConfig();
+        lastSave = lastSave.thenRunAsync(() -> saveCheckpoints(config));
+    }
+
+    private void saveCheckpoints(YamlConfiguration config) {
+        try {
+            config.save(pregenFile);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Error saving pregen.yml: " + e.getMessage());
+        }
+    }
+}
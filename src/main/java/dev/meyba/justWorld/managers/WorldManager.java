@@ -8,16 +8,22 @@ import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+import org.bukkit.generator.ChunkGenerator;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 public class WorldManager {
@@ -25,6 +31,8 @@ public class WorldManager {
     private final Map<String, WorldData> worldDataMap;
     private final File worldsFile;
     private final ExecutorService fileOperationExecutor;
+    private final Map<String, CompletableFuture<World>> loadingWorlds;
+    private final Map<String, List<LoadWaiter>> loadWaiters;
 
     private static final Set<String> SKIP_FILES = Set.of("uid.dat", "session.lock");
     private static final int FILE_OP_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
@@ -34,6 +42,8 @@ public class WorldManager {
         this.worldDataMap = new ConcurrentHashMap<>();
         this.worldsFile = new File(plugin.getDataFolder(), "worlds.yml");
         this.fileOperationExecutor = Executors.newWorkStealingPool(FILE_OP_THREADS);
+        this.loadingWorlds = new ConcurrentHashMap<>();
+        this.loadWaiters = new HashMap<>();
         loadWorldsData();
     }
 
@@ -55,7 +65,7 @@ public class WorldManager {
 
             try {
                 World world = Bukkit.getScheduler().callSyncMethod(plugin, () -> {
-                    WorldCreator creator = worldData.toWorldCreator();
+                    WorldCreator creator = createCreator(worldData);
 
                     World newWorld = creator.createWorld();
                     if (newWorld != null) {
@@ -76,7 +86,61 @@ public class WorldManager {
         });
     }
 
+    // Single flight per world name, everyone asking while a load runs gets the same future
     public CompletableFuture<World> loadWorld(String worldName) {
+        CompletableFuture<World> load = new CompletableFuture<>();
+        CompletableFuture<World> running = loadingWorlds.putIfAbsent(worldName, load);
+        if (running != null) {
+            return running;
+        }
+
+        startLoad(worldName).whenComplete((world, ex) -> {
+            // Removed before completing, so a failed load can be retried by the next caller
+            loadingWorlds.remove(worldName, load);
+            load.complete(world);
+        });
+        return load;
+    }
+
+    // Runs the action on the main thread once the world is loaded, with null if it could not be loaded. Players
+    // waiting for the same world share one load and are released a few per tick, so a crowd arriving through a
+    // portal does not all teleport in the same tick. Asking again for the same player replaces the earlier action.
+    public void runWhenLoaded(String worldName, Player player, Consumer<World> action) {
+        World world = Bukkit.getWorld(worldName);
+        if (world != null) {
+            action.accept(world);
+            return;
+        }
+
+        List<LoadWaiter> waiters = loadWaiters.get(worldName);
+        if (waiters != null) {
+            waiters.removeIf(waiter -> waiter.player().equals(player));
+            waiters.add(new LoadWaiter(player, action));
+            return;
+        }
+
+        waiters = new ArrayList<>();
+        waiters.add(new LoadWaiter(player, action));
+        loadWaiters.put(worldName, waiters);
+        loadWorld(worldName).thenAccept(loaded -> plugin.getServer().getScheduler().runTask(plugin, () ->
+                releaseWaiters(new ArrayDeque<>(loadWaiters.remove(worldName)), loaded)));
+    }
+
+    private void releaseWaiters(Deque<LoadWaiter> waiters, World world) {
+        int perTick = world == null ? waiters.size() : Math.max(1, plugin.getConfig().getInt("performance.teleports-per-tick", 8));
+        for (int i = 0; i < perTick && !waiters.isEmpty(); i++) {
+            LoadWaiter waiter = waiters.poll();
+            if (waiter.player().isOnline()) {
+                waiter.action().accept(world);
+            }
+        }
+
+        if (!waiters.isEmpty()) {
+            plugin.getServer().getScheduler().runTask(plugin, () -> releaseWaiters(waiters, world));
+        }
+    }
+
+    private CompletableFuture<World> startLoad(String worldName) {
         return CompletableFuture.supplyAsync(() -> {
             WorldData data = worldDataMap.get(worldName);
             if (data == null) {
@@ -90,7 +154,7 @@ public class WorldManager {
                 return Bukkit.getScheduler().callSyncMethod(plugin, () -> {
                     World world = Bukkit.getWorld(worldName);
                     if (world == null && data != null) {
-                        world = data.toWorldCreator().createWorld();
+                        world = createCreator(data).createWorld();
                         if (world != null) {
                             configureWorld(world, data);
                         }
@@ -193,14 +257,17 @@ public class WorldManager {
                             .pvpEnabled(sourceData.pvpEnabled())
                             .keepSpawnInMemory(sourceData.keepSpawnInMemory())
                             .autoLoad(sourceData.autoLoad())
-                            .generatorType(sourceData.generatorType())
+                            .generator(sourceData.generator())
+                            .generatorSettings(sourceData.generatorSettings())
+                            .biome(sourceData.biome())
                             .build();
                     worldDataMap.put(targetName, clonedData);
                     saveWorldsDataAsync();
                 }
 
                 return Bukkit.getScheduler().callSyncMethod(plugin, () -> {
-                    World world = new WorldCreator(targetName).createWorld();
+                    WorldData targetData = worldDataMap.get(targetName);
+                    World world = (targetData != null ? createCreator(targetData) : new WorldCreator(targetName)).createWorld();
                     return world != null;
                 }).get();
 
@@ -329,14 +396,17 @@ public class WorldManager {
                             .pvpEnabled(oldData.pvpEnabled())
                             .keepSpawnInMemory(oldData.keepSpawnInMemory())
                             .autoLoad(oldData.autoLoad())
-                            .generatorType(oldData.generatorType())
+                            .generator(oldData.generator())
+                            .generatorSettings(oldData.generatorSettings())
+                            .biome(oldData.biome())
                             .build();
                     worldDataMap.put(newName, newData);
                 }
                 saveWorldsDataAsync();
 
                 Bukkit.getScheduler().callSyncMethod(plugin, () -> {
-                    WorldCreator creator = new WorldCreator(newName);
+                    WorldData newData = worldDataMap.get(newName);
+                    WorldCreator creator = newData != null ? createCreator(newData) : new WorldCreator(newName);
                     return creator.createWorld();
                 }).get();
 
@@ -376,6 +446,15 @@ public class WorldManager {
         return Bukkit.getWorlds();
     }
 
+    private WorldCreator createCreator(WorldData data) {
+        WorldCreator creator = data.toWorldCreator();
+        ChunkGenerator generator = plugin.getGeneratorRegistry().getGenerator(data);
+        if (generator != null) {
+            creator.generator(generator);
+        }
+        return creator;
+    }
+
     private void configureWorld(World world, WorldData data) {
         world.setPVP(data.pvpEnabled());
         world.setKeepSpawnInMemory(data.keepSpawnInMemory());
@@ -402,11 +481,14 @@ public class WorldManager {
             if (worldSection == null) return;
 
             try {
-                WorldData.GeneratorType generatorType = WorldData.GeneratorType.DEFAULT;
-                try {
-                    generatorType = WorldData.GeneratorType.valueOf(
-                            worldSection.getString("generatorType", "DEFAULT").toUpperCase());
-                } catch (IllegalArgumentException ignored) {
+                // Worlds saved before the generator registry only have the built-in generatorType
+                String generator = worldSection.getString("generator");
+                if (generator == null) {
+                    try {
+                        generator = WorldData.GeneratorType.valueOf(
+                                worldSection.getString("generatorType", "DEFAULT").toUpperCase()).getId();
+                    } catch (IllegalArgumentException ignored) {
+                    }
                 }
 
                 WorldData data = WorldData.builder(worldName)
@@ -419,7 +501,9 @@ public class WorldManager {
                         .pvpEnabled(worldSection.getBoolean("pvp", true))
                         .keepSpawnInMemory(worldSection.getBoolean("keepSpawnInMemory", false))
                         .autoLoad(worldSection.getBoolean("autoLoad", true))
-                        .generatorType(generatorType)
+                        .generator(generator)
+                        .generatorSettings(worldSection.getString("generatorSettings"))
+                        .biome(worldSection.getString("biome"))
                         .build();
 
                 worldDataMap.put(worldName, data);
@@ -444,7 +528,9 @@ public class WorldManager {
                 config.set(path + "pvp", data.pvpEnabled());
                 config.set(path + "keepSpawnInMemory", data.keepSpawnInMemory());
                 config.set(path + "autoLoad", data.autoLoad());
-                config.set(path + "generatorType", data.generatorType().name());
+                config.set(path + "generator", data.generator());
+                config.set(path + "generatorSettings", data.generatorSettings());
+                config.set(path + "biome", data.biome());
             });
 
             try {
@@ -499,4 +585,6 @@ public class WorldManager {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private record LoadWaiter(Player player, Consumer<World> action) {}
+}
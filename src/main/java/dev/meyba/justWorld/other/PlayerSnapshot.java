@@ -0,0 +1,72 @@
+package dev.meyba.justWorld.other;
+
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.potion.PotionEffect;
+
+import java.util.List;
+
+// Everything per-world inventories keep for one player. Items are copied when captured on the main thread,
+// so a snapshot can be serialized from any thread while the player keeps playing.
+public record PlayerSnapshot(ItemStack[] inventory, ItemStack[] armor, ItemStack offhand, ItemStack[] enderChest,
+                             double health, double maxHealth, int food, float saturation, float exp, int level,
+                             List<PotionEffect> effects) {
+
+    public static PlayerSnapshot capture(Player player) {
+        PlayerInventory playerInventory = player.getInventory();
+        return new PlayerSnapshot(
+                copy(playerInventory.getContents()),
+                copy(playerInventory.getArmorContents()),
+                copy(playerInventory.getItemInOffHand()),
+                copy(player.getEnderChest().getContents()),
+                player.getHealth(),
+                player.getMaxHealth(),
+                player.getFoodLevel(),
+                player.getSaturation(),
+                player.getExp(),
+                player.getLevel(),
+                List.copyOf(player.getActivePotionEffects()));
+    }
+
+    // Main thread only
+    public void apply(Player player) {
+        PlayerInventory playerInventory = player.getInventory();
+        if (inventory != null) {
+            playerInventory.setContents(copy(inventory));
+        }
+        if (armor != null) {
+            playerInventory.setArmorContents(copy(armor));
+        }
+        if (offhand != null) {
+            playerInventory.setItemInOffHand(copy(offhand));
+        }
+        if (enderChest != null) {
+            player.getEnderChest().setContents(copy(enderChest));
+        }
+
+        player.setMaxHealth(maxHealth);
+        player.setHealth(Math.min(health, maxHealth));
+        player.setFoodLevel(food);
+        player.setSaturation(saturation);
+        player.setExp(exp);
+        player.setLevel(level);
+
+        for (PotionEffect effect : player.getActivePotionEffects()) {
+            player.removePotionEffect(effect.getType());
+        }
+        effects.forEach(player::addPotionEffect);
+    }
+
+    private static ItemStack[] copy(ItemStack[] items) {
+        ItemStack[] copy = new ItemStack[items.length];
+        for (int i = 0; i < items.length; i++) {
+            copy[i] = copy(items[i]);
+        }
+        return copy;
+    }
+
+    private static ItemStack copy(ItemStack item) {
+        return item == null ? null : item.clone();
+    }
+}
@@ -0,0 +1,165 @@
+package dev.meyba.justWorld.other;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+// Per-world inventory state by player, group and gamemode, written back to disk later instead of on every world
+// change. Dirty entries stay until they are flushed, and a flushed entry stays until its write has finished. Once
+// the cache is full the least recently used clean entry is dropped, dirty ones are handed back to the caller to be
+// written and stay pinned meanwhile, so state newer than the file is always here.
+public class PlayerStateCache {
+    private final Map<Key, Entry> entries;
+    // Generation of each key's latest save that is not on disk yet
+    private final Map<Key, Long> unwritten;
+    private final int maxSize;
+    private long generation;
+
+    public PlayerStateCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+        this.unwritten = new HashMap<>();
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public record Key(UUID playerId, String group, String gameMode) {
+    }
+
+    public record Dirty(Key key, PlayerSnapshot snapshot, long generation) {
+    }
+
+    // A null snapshot means the player has nothing stored for this key
+    private static final class Entry {
+        private final PlayerSnapshot snapshot;
+        private final long generation;
+        private boolean dirty;
+        // Handed out for writing and not written yet, so it must not be evicted
+        private boolean writing;
+
+        private Entry(PlayerSnapshot snapshot, long generation, boolean dirty) {
+            this.snapshot = snapshot;
+            this.generation = generation;
+            this.dirty = dirty;
+        }
+    }
+
+    public synchronized boolean contains(Key key) {
+        return entries.containsKey(key);
+    }
+
+    // Null for both a miss and a cached empty state, check contains first to tell them apart
+    public synchronized PlayerSnapshot get(Key key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.snapshot;
+    }
+
+    // Taken before a read is queued and passed to putLoaded with its result
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    // Returns dirty entries evicted to make room, the caller has to write them
+    public synchronized List<Dirty> put(Key key, PlayerSnapshot snapshot) {
+        long saved = ++generation;
+        entries.put(key, new Entry(snapshot, saved, true));
+        unwritten.put(key, saved);
+        return evict(key);
+    }
+
+    // State just read from disk. It never replaces what is cached, and a read queued before the key's latest
+    // unwritten save is dropped as it may have seen the older file. Called from IO threads, so only clean entries
+    // make room here, dirty ones wait for the next put or flush on the main thread.
+    public synchronized void putLoaded(Key key, PlayerSnapshot snapshot, long readGeneration) {
+        Long saved = unwritten.get(key);
+        if (entries.containsKey(key) || (saved != null && saved > readGeneration)) {
+            return;
+        }
+        entries.put(key, new Entry(snapshot, 0, false));
+        entries.entrySet().removeIf(entry -> entries.size() > maxSize && !entry.getValue().dirty && !entry.getValue().writing);
+    }
+
+    // Marks the matching dirty entries clean and returns them for writing, they stay pinned until finishWrite
+    public synchronized List<Dirty> drainDirty(Predicate<Key> filter) {
+        List<Dirty> dirty = new ArrayList<>();
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().dirty && filter.test(entry.getKey())) {
+                entry.getValue().dirty = false;
+                entry.getValue().writing = true;
+                dirty.add(new Dirty(entry.getKey(), entry.getValue().snapshot, entry.getValue().generation));
+            }
+        }
+        return dirty;
+    }
+
+    // Called once a drained or evicted snapshot was written. A failed write makes it dirty again, also when it was
+    // evicted meanwhile, unless a newer save replaced it already.
+    public synchronized void finishWrite(Dirty dirty, boolean written) {
+        if (written) {
+            unwritten.remove(dirty.key(), dirty.generation());
+        }
+
+        Entry entry = entries.get(dirty.key());
+        if (entry == null) {
+            if (!written) {
+                entries.put(dirty.key(), new Entry(dirty.snapshot(), dirty.generation(), true));
+            }
+            return;
+        }
+
+        if (entry.snapshot == dirty.snapshot()) {
+            entry.writing = false;
+            if (!written) {
+                entry.dirty = true;
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized int dirtyCount() {
+        int dirty = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.dirty) {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+
+    // Entries being written count as making room already, they are dropped by a later eviction once written.
+    // The entry just saved is never handed back, it would be written right away.
+    private List<Dirty> evict(Key saved) {
+        List<Dirty> evicted = List.of();
+        int excess = entries.size() - maxSize;
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            Map.Entry<Key, Entry> eldest = iterator.next();
+            Entry entry = eldest.getValue();
+            if (eldest.getKey().equals(saved)) {
+                continue;
+            }
+
+            excess--;
+            if (entry.writing) {
+                continue;
+            }
+            if (entry.dirty) {
+                if (evicted.isEmpty()) {
+                    evicted = new ArrayList<>();
+                }
+                entry.dirty = false;
+                entry.writing = true;
+                evicted.add(new Dirty(eldest.getKey(), entry.snapshot, entry.generation));
+                continue;
+            }
+            iterator.remove();
+        }
+        return evicted;
+    }
+}
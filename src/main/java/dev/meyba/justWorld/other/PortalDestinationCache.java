@@ -0,0 +1,109 @@
+package dev.meyba.justWorld.other;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Safe teleport heights for whole target chunks, so a busy portal resolves without searching the world again.
+// Entries are kept in access order and the least recently used chunk is dropped once the cache is full.
+public class PortalDestinationCache {
+    public static final short UNKNOWN = Short.MIN_VALUE;
+    // The column was searched but has no safe spot
+    public static final short NONE = Short.MIN_VALUE + 1;
+
+    private final Map<Key, CompletableFuture<short[]>> entries;
+
+    public PortalDestinationCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<short[]>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    // Returns the finished or still running search for the chunk of the given block. The loader is only called when
+    // the chunk is not cached or the requested column was invalidated, players arriving meanwhile share its result.
+    public CompletableFuture<short[]> get(String world, int blockX, int blockZ,
+                                          Supplier<CompletableFuture<short[]>> loader) {
+        return get(world, blockX, blockZ, blockX, blockZ, loader);
+    }
+
+    // Same for a range of columns inside one chunk, given as inclusive block coordinates. The chunk is searched again
+    // when any column in the range was invalidated.
+    public synchronized CompletableFuture<short[]> get(String world, int minX, int minZ, int maxX, int maxZ,
+                                                       Supplier<CompletableFuture<short[]>> loader) {
+        Key key = new Key(world, minX >> 4, minZ >> 4);
+        CompletableFuture<short[]> entry = entries.get(key);
+        if (entry != null && (!entry.isDone() || isUsable(entry, minX, minZ, maxX, maxZ))) {
+            return entry;
+        }
+
+        CompletableFuture<short[]> loaded = loader.get();
+        entries.put(key, loaded);
+        return loaded;
+    }
+
+    // Called for every block change in a loaded world, so only the affected column is dropped
+    public synchronized void invalidate(String world, int blockX, int blockZ) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Key key = new Key(world, blockX >> 4, blockZ >> 4);
+        CompletableFuture<short[]> entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+
+        if (entry.isDone() && !entry.isCompletedExceptionally()) {
+            // Searches may be reading the finished array on other threads, so it is replaced and never written
+            short[] heights = entry.join();
+            int column = columnIndex(blockX, blockZ);
+            if (heights[column] != UNKNOWN) {
+                short[] invalidated = heights.clone();
+                invalidated[column] = UNKNOWN;
+                entries.put(key, CompletableFuture.completedFuture(invalidated));
+            }
+        } else {
+            // The running search works on a snapshot taken before this change, its result must not be kept
+            entries.remove(key);
+        }
+    }
+
+    public synchronized void invalidateWorld(String world) {
+        entries.keySet().removeIf(key -> key.world().equals(world));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public static int columnIndex(int blockX, int blockZ) {
+        return (blockX & 15) << 4 | (blockZ & 15);
+    }
+
+    private static boolean isUsable(CompletableFuture<short[]> entry, int minX, int minZ, int maxX, int maxZ) {
+        if (entry.isCompletedExceptionally()) {
+            return false;
+        }
+
+        short[] heights = entry.join();
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                if (heights[columnIndex(x, z)] == UNKNOWN) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private record Key(String world, int chunkX, int chunkZ) {
+    }
+}
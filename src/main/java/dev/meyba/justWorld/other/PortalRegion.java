@@ -0,0 +1,64 @@
+package dev.meyba.justWorld.other;
+
+import dev.meyba.justWorld.managers.PortalManager;
+
+// Frameless portal area in one world. Polygons are extruded between minY and maxY, their bounds are kept as well
+// so most positions are rejected before the polygon test.
+public record PortalRegion(String name, String world, Shape shape,
+                           int minX, int minY, int minZ, int maxX, int maxY, int maxZ,
+                           int[] pointsX, int[] pointsZ,
+                           String targetWorld, PortalManager.Destination destination) {
+
+    public enum Shape {
+        CUBOID,
+        POLYGON
+    }
+
+    public static PortalRegion cuboid(String name, String world, int x1, int y1, int z1, int x2, int y2, int z2,
+                                      String targetWorld, PortalManager.Destination destination) {
+        return new PortalRegion(name, world, Shape.CUBOID,
+                Math.min(x1, x2), Math.min(y1, y2), Math.min(z1, z2),
+                Math.max(x1, x2), Math.max(y1, y2), Math.max(z1, z2),
+                null, null, targetWorld, destination);
+    }
+
+    public static PortalRegion polygon(String name, String world, int minY, int maxY, int[] pointsX, int[] pointsZ,
+                                       String targetWorld, PortalManager.Destination destination) {
+        int minX = Integer.MAX_VALUE;
+        int minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxZ = Integer.MIN_VALUE;
+        for (int i = 0; i < pointsX.length; i++) {
+            minX = Math.min(minX, pointsX[i]);
+            maxX = Math.max(maxX, pointsX[i]);
+            minZ = Math.min(minZ, pointsZ[i]);
+            maxZ = Math.max(maxZ, pointsZ[i]);
+        }
+        return new PortalRegion(name, world, Shape.POLYGON, minX, Math.min(minY, maxY), minZ, maxX, Math.max(minY, maxY), maxZ,
+                pointsX.clone(), pointsZ.clone(), targetWorld, destination);
+    }
+
+    public boolean contains(int x, int y, int z) {
+        if (x < minX || x > maxX || y < minY || y > maxY || z < minZ || z > maxZ) {
+            return false;
+        }
+        return shape == Shape.CUBOID || insidePolygon(x, z);
+    }
+
+    // Even-odd ray cast through the block centre, vertices are block positions
+    private boolean insidePolygon(int x, int z) {
+        double px = x + 0.5;
+        double pz = z + 0.5;
+        boolean inside = false;
+        for (int i = 0, j = pointsX.length - 1; i < pointsX.length; j = i++) {
+            double xi = pointsX[i] + 0.5;
+            double zi = pointsZ[i] + 0.5;
+            double xj = pointsX[j] + 0.5;
+            double zj = pointsZ[j] + 0.5;
+            if ((zi > pz) != (zj > pz) && px < (xj - xi) * (pz - zi) / (zj - zi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
@@ -0,0 +1,79 @@
+package dev.meyba.justWorld.other;
+
+import dev.meyba.justWorld.utils.ChunkUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Regions bucketed by the 16x16 block cells their bounds overlap, so finding the region at a position only tests
+// the few regions sharing that cell however many exist. Built once per change and never modified afterwards.
+public final class PortalRegionIndex {
+    public static final PortalRegionIndex EMPTY = new PortalRegionIndex(Map.of());
+
+    private static final int CELL_SHIFT = 4;
+    private static final PortalRegion[] NO_REGIONS = new PortalRegion[0];
+
+    private final Map<String, Map<Long, PortalRegion[]>> cells;
+
+    private PortalRegionIndex(Map<String, Map<Long, PortalRegion[]>> cells) {
+        this.cells = cells;
+    }
+
+    public static PortalRegionIndex build(Collection<PortalRegion> regions) {
+        if (regions.isEmpty()) {
+            return EMPTY;
+        }
+
+        Map<String, Map<Long, List<PortalRegion>>> buckets = new HashMap<>();
+        for (PortalRegion region : regions) {
+            Map<Long, List<PortalRegion>> worldBuckets = buckets.computeIfAbsent(region.world(), world -> new HashMap<>());
+            for (int cellX = region.minX() >> CELL_SHIFT; cellX <= region.maxX() >> CELL_SHIFT; cellX++) {
+                for (int cellZ = region.minZ() >> CELL_SHIFT; cellZ <= region.maxZ() >> CELL_SHIFT; cellZ++) {
+                    worldBuckets.computeIfAbsent(ChunkUtil.key(cellX, cellZ), key -> new ArrayList<>()).add(region);
+                }
+            }
+        }
+
+        Map<String, Map<Long, PortalRegion[]>> cells = new HashMap<>();
+        buckets.forEach((world, worldBuckets) -> {
+            Map<Long, PortalRegion[]> worldCells = new HashMap<>(worldBuckets.size() * 2);
+            worldBuckets.forEach((key, list) -> worldCells.put(key, list.toArray(NO_REGIONS)));
+            cells.put(world, worldCells);
+        });
+        return new PortalRegionIndex(cells);
+    }
+
+    // Cells a region is added to, which grows with its area
+    public static long cellCount(PortalRegion region) {
+        long cellsX = (region.maxX() >> CELL_SHIFT) - (region.minX() >> CELL_SHIFT) + 1L;
+        long cellsZ = (region.maxZ() >> CELL_SHIFT) - (region.minZ() >> CELL_SHIFT) + 1L;
+        return cellsX * cellsZ;
+    }
+
+    public boolean isEmpty() {
+        return cells.isEmpty();
+    }
+
+    // First region containing the block, or null
+    public PortalRegion find(String world, int x, int y, int z) {
+        Map<Long, PortalRegion[]> worldCells = cells.get(world);
+        if (worldCells == null) {
+            return null;
+        }
+
+        PortalRegion[] candidates = worldCells.get(ChunkUtil.key(x >> CELL_SHIFT, z >> CELL_SHIFT));
+        if (candidates == null) {
+            return null;
+        }
+
+        for (PortalRegion region : candidates) {
+            if (region.contains(x, y, z)) {
+                return region;
+            }
+        }
+        return null;
+    }
+}
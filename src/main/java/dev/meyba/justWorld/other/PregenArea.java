@@ -0,0 +1,102 @@
+package dev.meyba.justWorld.other;
+
+public record PregenArea(Shape shape, int centerX, int centerZ, int radiusX, int radiusZ) {
+
+    public enum Shape {
+        SQUARE,
+        CIRCLE,
+        RECTANGLE
+    }
+
+    public int minX() {
+        return centerX - radiusX;
+    }
+
+    public int maxX() {
+        return centerX + radiusX;
+    }
+
+    public int minZ() {
+        return centerZ - radiusZ;
+    }
+
+    public int maxZ() {
+        return centerZ + radiusZ;
+    }
+
+    public int maxRadius() {
+        return Math.max(radiusX, radiusZ);
+    }
+
+    public boolean contains(int chunkX, int chunkZ) {
+        long dx = chunkX - centerX;
+        long dz = chunkZ - centerZ;
+        if (shape == Shape.CIRCLE) {
+            return dx * dx + dz * dz <= circleLimit();
+        }
+        return Math.abs(dx) <= radiusX && Math.abs(dz) <= radiusZ;
+    }
+
+    // How far the area reaches along z in the column dx chunks from the center, -1 when the column is outside it
+    public int reachZ(int dx) {
+        if (shape == Shape.CIRCLE) {
+            return circleHalfWidth(dx);
+        }
+        return Math.abs(dx) <= radiusX ? radiusZ : -1;
+    }
+
+    // How far the area reaches along x in the row dz chunks from the center, -1 when the row is outside it
+    public int reachX(int dz) {
+        if (shape == Shape.CIRCLE) {
+            return circleHalfWidth(dz);
+        }
+        return Math.abs(dz) <= radiusZ ? radiusX : -1;
+    }
+
+    public long count() {
+        return countIn(minX(), minZ(), maxX(), maxZ());
+    }
+
+    // Number of chunks of the area inside the given chunk rectangle, row by row for circles
+    public long countIn(int fromX, int fromZ, int toX, int toZ) {
+        int x1 = Math.max(fromX, minX());
+        int x2 = Math.min(toX, maxX());
+        int z1 = Math.max(fromZ, minZ());
+        int z2 = Math.min(toZ, maxZ());
+        if (x1 > x2 || z1 > z2) {
+            return 0;
+        }
+
+        if (shape != Shape.CIRCLE) {
+            return (long) (x2 - x1 + 1) * (z2 - z1 + 1);
+        }
+
+        long count = 0;
+        for (int z = z1; z <= z2; z++) {
+            int halfWidth = circleHalfWidth(z - centerZ);
+            int rowFrom = Math.max(x1, centerX - halfWidth);
+            int rowTo = Math.min(x2, centerX + halfWidth);
+            if (rowFrom <= rowTo) {
+                count += rowTo - rowFrom + 1;
+            }
+        }
+        return count;
+    }
+
+    // r * (r + 1) rounds the disc out to radius + 0.5 so the edge is not jagged
+    private long circleLimit() {
+        return (long) radiusX * (radiusX + 1);
+    }
+
+    private int circleHalfWidth(int dz) {
+        long remaining = circleLimit() - (long) dz * dz;
+        if (remaining < 0) {
+            return -1;
+        }
+
+        int halfWidth = (int) Math.sqrt(remaining);
+        while ((long) (halfWidth + 1) * (halfWidth + 1) <= remaining) halfWidth++;
+        while ((long) halfWidth * halfWidth > remaining) halfWidth--;
+        return halfWidth;
+    }
+}
@@ -0,0 +1,150 @@
+package dev.meyba.justWorld.other;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class PregenStats {
+    // Bucket i counts latencies below 2^i ms, the last bucket everything slower
+    public static final int LATENCY_BUCKETS = 14;
+    private static final double RATE_SMOOTHING = 0.3;
+
+    private final AtomicLong generated;
+    private final AtomicLong skipped;
+    private final AtomicLong failed;
+    private final AtomicLongArray latencies;
+    private final AtomicLong maxLatencyNanos;
+    private final long startCompleted;
+
+    private long mainThreadNanos;
+    private long activeNanos;
+    private long lastSampleTime;
+    private long lastSampleCompleted;
+    private double currentRate;
+
+    public PregenStats(long startCompleted) {
+        this.generated = new AtomicLong();
+        this.skipped = new AtomicLong();
+        this.failed = new AtomicLong();
+        this.latencies = new AtomicLongArray(LATENCY_BUCKETS);
+        this.maxLatencyNanos = new AtomicLong();
+        this.startCompleted = startCompleted;
+        this.lastSampleCompleted = startCompleted;
+    }
+
+    public void recordGenerated(long latencyNanos) {
+        generated.incrementAndGet();
+        recordLatency(latencyNanos);
+    }
+
+    public void recordFailed(long latencyNanos) {
+        failed.incrementAndGet();
+        recordLatency(latencyNanos);
+    }
+
+    public void recordSkipped(long count) {
+        skipped.addAndGet(count);
+    }
+
+    // Only called from the scheduler tick
+    public void addMainThreadNanos(long nanos) {
+        mainThreadNanos += nanos;
+    }
+
+    // Called once a second from the scheduler tick; time spent paused or queued does not count towards the average
+    public void sample(long completed, boolean running) {
+        long now = System.nanoTime();
+        if (lastSampleTime != 0 && running) {
+            long elapsed = now - lastSampleTime;
+            activeNanos += elapsed;
+            double rate = (completed - lastSampleCompleted) / (elapsed / 1_000_000_000.0);
+            currentRate = currentRate == 0 ? rate : currentRate + (rate - currentRate) * RATE_SMOOTHING;
+        } else if (!running) {
+            currentRate = 0;
+        }
+        lastSampleTime = now;
+        lastSampleCompleted = completed;
+    }
+
+    public double getCurrentRate() {
+        return currentRate;
+    }
+
+    public double getAverageRate() {
+        return activeNanos == 0 ? 0 : (lastSampleCompleted - startCompleted) / (activeNanos / 1_000_000_000.0);
+    }
+
+    // -1 while no rate is known yet
+    public long getEtaSeconds(long remaining) {
+        double rate = getAverageRate();
+        return rate <= 0 ? -1 : (long) Math.ceil(remaining / rate);
+    }
+
+    public long getGenerated() {
+        return generated.get();
+    }
+
+    public long getSkipped() {
+        return skipped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getMainThreadMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(mainThreadNanos);
+    }
+
+    public long getMaxLatencyMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get());
+    }
+
+    public long[] getLatencyHistogram() {
+        long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            histogram[i] = latencies.get(i);
+        }
+        return histogram;
+    }
+
+    // Upper bound in ms of the bucket holding the given percentile, or -1 without samples
+    public long getLatencyPercentile(double percentile) {
+        long[] histogram = getLatencyHistogram();
+        long total = 0;
+        for (long count : histogram) total += count;
+        if (total == 0) {
+            return -1;
+        }
+
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < LATENCY_BUCKETS - 1; i++) {
+            seen += histogram[i];
+            if (seen >= target) {
+                return 1L << i;
+            }
+        }
+        return getMaxLatencyMillis();
+    }
+
+    public static String formatDuration(long seconds) {
+        if (seconds < 0) {
+            return "?";
+        }
+        if (seconds < 60) {
+            return seconds + "s";
+        }
+        if (seconds < 3600) {
+            return (seconds / 60) + "m " + (seconds % 60) + "s";
+        }
+        return (seconds / 3600) + "h " + ((seconds % 3600) / 60) + "m";
+    }
+
+    private void recordLatency(long latencyNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        int bucket = millis <= 0 ? 0 : Math.min(LATENCY_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        latencies.incrementAndGet(bucket);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+}
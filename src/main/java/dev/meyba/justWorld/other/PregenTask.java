@@ -0,0 +1,400 @@
+package dev.meyba.justWorld.other;
+
+import dev.meyba.justWorld.utils.ChunkUtil;
+import dev.meyba.justWorld.utils.RegionUtil;
+import dev.meyba.justWorld.utils.SpiralIterator;
+import org.bukkit.command.CommandSender;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PregenTask {
+    public static final long NONE = Long.MIN_VALUE;
+    private static final int WINDOW_SHIFT = 4096;
+
+    public enum Order {
+        SPIRAL,
+        REGION
+    }
+
+    public enum State {
+        QUEUED,
+        RUNNING,
+        PAUSED
+    }
+
+    private final String worldName;
+    private final PregenArea area;
+    private final Order order;
+    private final int priority;
+    private final long sequence;
+    private final File regionFolder;
+    private final long totalChunks;
+    private final CommandSender sender;
+    private final AtomicInteger pending;
+    private final AtomicLong completed;
+    private final SpiralIterator spiral;
+    private final PregenStats stats;
+
+    // In-flight indices as bits relative to windowBase, so memory does not grow with the radius
+    private BitSet inFlight;
+    private long windowBase;
+
+    private long regionOrdinal;
+    private int regionX;
+    private int regionZ;
+    private int localIndex;
+    private CompletableFuture<BitSet> storedChunks;
+    private long lastIndex;
+    private boolean lastMayExist;
+    private int lastProgress;
+    private State state;
+
+    public PregenTask(String worldName, PregenArea area, Order order, int priority,
+                      long sequence, File regionFolder, long startIndex, CommandSender sender) {
+        this.worldName = worldName;
+        this.area = area;
+        this.order = order;
+        this.priority = priority;
+        this.sequence = sequence;
+        this.regionFolder = regionFolder;
+        this.totalChunks = area.count();
+        this.sender = sender;
+        this.pending = new AtomicInteger(0);
+        this.completed = new AtomicLong(0);
+        this.inFlight = new BitSet();
+        this.localIndex = RegionUtil.REGION_CHUNKS;
+        this.lastProgress = -1;
+        this.state = State.QUEUED;
+
+        int centerX = area.centerX();
+        int centerZ = area.centerZ();
+        if (order == Order.REGION) {
+            int regionRadius = Math.max(
+                    Math.max((centerX >> 5) - (area.minX() >> 5), (area.maxX() >> 5) - (centerX >> 5)),
+                    Math.max((centerZ >> 5) - (area.minZ() >> 5), (area.maxZ() >> 5) - (centerZ >> 5)));
+            this.spiral = new SpiralIterator(centerX >> 5, centerZ >> 5, regionRadius);
+            resumeRegions(startIndex);
+        } else {
+            this.spiral = new SpiralIterator(centerX, centerZ, area.maxRadius());
+            resumeSpiral(startIndex);
+        }
+        this.stats = new PregenStats(completed.get());
+    }
+
+    public boolean hasNext() {
+        return order == Order.REGION ? localIndex < RegionUtil.REGION_CHUNKS || spiral.hasNext() : spiral.hasNext();
+    }
+
+    // Returns the next chunk key to generate, or NONE if the task has to wait for in-flight chunks or disk reads
+    public long poll() {
+        if (order == Order.SPIRAL) {
+            // Circles and rectangles are walked on their bounding square, the parts of a ring outside are jumped over
+            long index = nextSpiralIndex(spiral.getIndex());
+            if (index != spiral.getIndex()) {
+                spiral.seek(index);
+            }
+            if (!spiral.hasNext()) {
+                return NONE;
+            }
+
+            int chunkX = spiral.getX();
+            int chunkZ = spiral.getZ();
+            spiral.next();
+            lastIndex = index;
+            lastMayExist = true;
+            return ChunkUtil.key(chunkX, chunkZ);
+        }
+
+        while (true) {
+            if (localIndex >= RegionUtil.REGION_CHUNKS) {
+                // The previous region has to be fully generated and released before the next one is opened
+                if (pending.get() > 0 || !enterNextRegion()) {
+                    return NONE;
+                }
+            }
+
+            BitSet stored = storedChunks.getNow(null);
+            if (stored == null) {
+                return NONE;
+            }
+
+            if (localIndex == 0 && isRegionStored(stored)) {
+                long skipped = countInRegion(regionX, regionZ);
+                completed.addAndGet(skipped);
+                stats.recordSkipped(skipped);
+                localIndex = RegionUtil.REGION_CHUNKS;
+                continue;
+            }
+
+            while (localIndex < RegionUtil.REGION_CHUNKS) {
+                int local = localIndex++;
+                int chunkX = localChunkX(regionX, local);
+                int chunkZ = localChunkZ(regionZ, local);
+                if (area.contains(chunkX, chunkZ)) {
+                    lastIndex = regionOrdinal * RegionUtil.REGION_CHUNKS + local;
+                    lastMayExist = stored.get(RegionUtil.localIndex(chunkX, chunkZ));
+                    return ChunkUtil.key(chunkX, chunkZ);
+                }
+            }
+        }
+    }
+
+    // Index of the chunk returned by the last poll, used for checkpoints
+    public long getLastIndex() {
+        return lastIndex;
+    }
+
+    // False when the region header proves the last polled chunk was never saved, so no generated check is needed
+    public boolean lastMayExist() {
+        return lastMayExist;
+    }
+
+    // Indices are dispatched in increasing order, so the window only ever grows to the right
+    public synchronized void markDispatched(long index) {
+        if (inFlight.isEmpty()) {
+            windowBase = index;
+        }
+        inFlight.set((int) (index - windowBase));
+        pending.incrementAndGet();
+    }
+
+    public synchronized void markCompleted(long index) {
+        inFlight.clear((int) (index - windowBase));
+        completed.incrementAndGet();
+        pending.decrementAndGet();
+
+        int lowest = inFlight.nextSetBit(0);
+        if (lowest >= WINDOW_SHIFT) {
+            inFlight = inFlight.get(lowest, inFlight.length());
+            windowBase += lowest;
+        }
+    }
+
+    // Everything before the lowest in-flight index is generated, so resuming from here never skips a chunk
+    public synchronized long getCheckpointIndex() {
+        int lowest = inFlight.nextSetBit(0);
+        if (lowest >= 0) {
+            return windowBase + lowest;
+        }
+        if (order == Order.REGION) {
+            return localIndex >= RegionUtil.REGION_CHUNKS
+                    ? spiral.getIndex() * RegionUtil.REGION_CHUNKS
+                    : regionOrdinal * RegionUtil.REGION_CHUNKS + localIndex;
+        }
+        return spiral.getIndex();
+    }
+
+    public boolean isFinished() {
+        return !hasNext() && pending.get() == 0;
+    }
+
+    public int getProgressPercent() {
+        return totalChunks == 0 ? 100 : (int) ((completed.get() * 100L) / totalChunks);
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public PregenArea getArea() {
+        return area;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getTotalChunks() {
+        return totalChunks;
+    }
+
+    public CommandSender getSender() {
+        return sender;
+    }
+
+    public PregenStats getStats() {
+        return stats;
+    }
+
+    public AtomicInteger getPending() {
+        return pending;
+    }
+
+    public AtomicLong getCompleted() {
+        return completed;
+    }
+
+    public int getLastProgress() {
+        return lastProgress;
+    }
+
+    public void setLastProgress(int lastProgress) {
+        this.lastProgress = lastProgress;
+    }
+
+    private boolean enterNextRegion() {
+        while (spiral.hasNext()) {
+            int nextX = spiral.getX();
+            int nextZ = spiral.getZ();
+            long ordinal = spiral.getIndex();
+            spiral.next();
+
+            if (countInRegion(nextX, nextZ) > 0) {
+                openRegion(ordinal, nextX, nextZ, 0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void openRegion(long ordinal, int x, int z, int startLocal) {
+        regionOrdinal = ordinal;
+        regionX = x;
+        regionZ = z;
+        localIndex = startLocal;
+        storedChunks = CompletableFuture.supplyAsync(() -> RegionUtil.readStoredChunks(regionFolder, x, z));
+    }
+
+    // The full rings inside are counted as one square, the partial last ring side by side
+    private void resumeSpiral(long startIndex) {
+        if (startIndex <= 0) {
+            return;
+        }
+
+        int ring = SpiralIterator.ringOf(startIndex);
+        int inner = ring - 1;
+        long done = inner < 0 ? 0 : area.countIn(area.centerX() - inner, area.centerZ() - inner,
+                area.centerX() + inner, area.centerZ() + inner);
+
+        for (int side = 0; side < 4; side++) {
+            long from = sideFrom(ring, side);
+            long to = Math.min(sideTo(ring, side), startIndex - 1);
+            if (from <= to) {
+                done += to - from + 1;
+            }
+        }
+
+        spiral.seek(startIndex);
+        completed.set(done);
+    }
+
+    // First spiral index from the given one that lies in the area, or the end of the spiral. Only a few steps per
+    // ring side however much of the bounding square lies outside the area.
+    private long nextSpiralIndex(long index) {
+        if (index == 0) {
+            // The center is always part of the area
+            return 0;
+        }
+
+        int ring = SpiralIterator.ringOf(index);
+        int side = (int) ((index - SpiralIterator.ringStart(ring)) / (2L * ring));
+        for (; ring <= area.maxRadius(); ring++, side = 0) {
+            for (; side < 4; side++) {
+                long from = Math.max(index, sideFrom(ring, side));
+                if (from <= sideTo(ring, side)) {
+                    return from;
+                }
+            }
+        }
+        return SpiralIterator.ringStart(area.maxRadius() + 1);
+    }
+
+    // The area is convex, so the cells of a ring side inside it are one run of steps ring - 1 - reach to
+    // ring - 1 + reach, where reach is how far the area extends along that side. Empty when the side misses it.
+    private long sideFrom(int ring, int side) {
+        int reach = sideReach(ring, side);
+        return reach < 0 ? Long.MAX_VALUE : sideStart(ring, side) + Math.max(0, ring - 1L - reach);
+    }
+
+    private long sideTo(int ring, int side) {
+        int reach = sideReach(ring, side);
+        return reach < 0 ? Long.MIN_VALUE : sideStart(ring, side) + Math.min(2L * ring - 1, ring - 1L + reach);
+    }
+
+    private static long sideStart(int ring, int side) {
+        return SpiralIterator.ringStart(ring) + 2L * ring * side;
+    }
+
+    // Sides in spiral order: x = ring, z = ring, x = -ring, z = -ring
+    private int sideReach(int ring, int side) {
+        return switch (side) {
+            case 0 -> area.reachZ(ring);
+            case 1 -> area.reachX(ring);
+            case 2 -> area.reachZ(-ring);
+            default -> area.reachX(-ring);
+        };
+    }
+
+    private void resumeRegions(long startIndex) {
+        long ordinal = startIndex / RegionUtil.REGION_CHUNKS;
+        int local = (int) (startIndex % RegionUtil.REGION_CHUNKS);
+        long done = 0;
+
+        while (spiral.hasNext() && spiral.getIndex() < ordinal) {
+            done += countInRegion(spiral.getX(), spiral.getZ());
+            spiral.next();
+        }
+
+        if (local > 0 && spiral.hasNext()) {
+            int x = spiral.getX();
+            int z = spiral.getZ();
+            for (int i = 0; i < local; i++) {
+                if (area.contains(localChunkX(x, i), localChunkZ(z, i))) {
+                    done++;
+                }
+            }
+            spiral.next();
+            openRegion(ordinal, x, z, local);
+        }
+
+        completed.set(done);
+    }
+
+    private boolean isRegionStored(BitSet stored) {
+        for (int local = 0; local < RegionUtil.REGION_CHUNKS; local++) {
+            int chunkX = localChunkX(regionX, local);
+            int chunkZ = localChunkZ(regionZ, local);
+            if (area.contains(chunkX, chunkZ) && !stored.get(RegionUtil.localIndex(chunkX, chunkZ))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long countInRegion(int x, int z) {
+        int minX = x * RegionUtil.REGION_SIZE;
+        int minZ = z * RegionUtil.REGION_SIZE;
+        return area.countIn(minX, minZ, minX + RegionUtil.REGION_SIZE - 1, minZ + RegionUtil.REGION_SIZE - 1);
+    }
+
+    // Rows are walked back and forth so consecutive chunks always share an edge
+    private static int localChunkX(int x, int local) {
+        int row = local / RegionUtil.REGION_SIZE;
+        int column = local % RegionUtil.REGION_SIZE;
+        return x * RegionUtil.REGION_SIZE + ((row & 1) == 0 ? column : RegionUtil.REGION_SIZE - 1 - column);
+    }
+
+    private static int localChunkZ(int z, int local) {
+        return z * RegionUtil.REGION_SIZE + local / RegionUtil.REGION_SIZE;
+    }
+}
@@ -0,0 +1,29 @@
+package dev.meyba.justWorld.other;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Count, total and worst duration of one kind of operation, safe to record from any thread
+public class TimingStats {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getAverageMillis() {
+        long samples = count.get();
+        return samples == 0 ? 0 : totalNanos.get() / 1_000_000.0 / samples;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+}
@@ -1,7 +1,5 @@
 package dev.meyba.justWorld.other;
 
-import dev.meyba.justWorld.generators.FlatWorldGenerator;
-import dev.meyba.justWorld.generators.VoidWorldGenerator;
 import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.WorldType;
@@ -18,13 +16,35 @@ public record WorldData(
         boolean pvpEnabled,
         boolean keepSpawnInMemory,
         boolean autoLoad,
-        GeneratorType generatorType
+        String generator,
+        String generatorSettings,
+        String biome
 ) {
 
+    // Built-in generators, the registry may hold further ids from other plugins
     public enum GeneratorType {
         DEFAULT,
         VOID,
-        FLAT
+        FLAT,
+        ISLAND,
+        TERRAIN;
+
+        public String getId() {
+            return this == DEFAULT ? null : name().toLowerCase();
+        }
+
+        // DEFAULT for no generator, null for ids that are not built in
+        public static GeneratorType fromId(String id) {
+            if (id == null || id.isBlank()) {
+                return DEFAULT;
+            }
+            for (GeneratorType type : values()) {
+                if (type != DEFAULT && type.getId().equalsIgnoreCase(id.trim())) {
+                    return type;
+                }
+            }
+            return null;
+        }
     }
 
     public static WorldData fromWorld(World world) {
@@ -38,23 +58,23 @@ public record WorldData(
                 world.getPVP(),
                 world.getKeepSpawnInMemory(),
                 true,
-                GeneratorType.DEFAULT
+                null,
+                null,
+                null
         );
     }
 
+    public GeneratorType generatorType() {
+        return GeneratorType.fromId(generator);
+    }
+
+    // The generator is attached by WorldManager from the GeneratorRegistry
     public WorldCreator toWorldCreator() {
-        WorldCreator creator = new WorldCreator(name)
+        return new WorldCreator(name)
                 .environment(environment)
                 .type(worldType)
                 .generateStructures(generateStructures)
                 .seed(seed);
-
-        switch (generatorType) {
-            case VOID -> creator.generator(new VoidWorldGenerator());
-            case FLAT -> creator.generator(new FlatWorldGenerator());
-        }
-
-        return creator;
     }
 
     public static Builder builder(String name) {
@@ -70,7 +90,9 @@ public record WorldData(
         private boolean pvpEnabled = true;
         private boolean keepSpawnInMemory = false;
         private boolean autoLoad = true;
-        private GeneratorType generatorType = GeneratorType.DEFAULT;
+        private String generator;
+        private String generatorSettings;
+        private String biome;
 
         private Builder(String name) {
             this.name = name;
@@ -112,7 +134,22 @@ public record WorldData(
         }
 
         public Builder generatorType(GeneratorType generatorType) {
-            this.generatorType = generatorType;
+            this.generator = generatorType.getId();
+            return this;
+        }
+
+        public Builder generator(String generator) {
+            this.generator = generator;
+            return this;
+        }
+
+        public Builder generatorSettings(String generatorSettings) {
+            this.generatorSettings = generatorSettings;
+            return this;
+        }
+
+        public Builder biome(String biome) {
+            this.biome = biome;
             return this;
         }
 
@@ -127,7 +164,9 @@ public record WorldData(
                     pvpEnabled,
                     keepSpawnInMemory,
                     autoLoad,
-                    generatorType
+                    generator,
+                    generatorSettings,
+                    biome
             );
         }
     }
@@ -0,0 +1,51 @@
+package dev.meyba.justWorld.utils;
+
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+
+public final class ChunkUtil {
+    private static final Method GET_CHUNK_AT_ASYNC = findAsyncMethod();
+
+    private ChunkUtil() {
+    }
+
+    public static boolean isAsyncSupported() {
+        return GET_CHUNK_AT_ASYNC != null;
+    }
+
+    // Paper exposes World#getChunkAtAsync, plain Spigot falls back to a synchronous load
+    @SuppressWarnings("unchecked")
+    public static CompletableFuture<Chunk> getChunkAsync(World world, int chunkX, int chunkZ) {
+        try {
+            if (GET_CHUNK_AT_ASYNC != null) {
+                return (CompletableFuture<Chunk>) GET_CHUNK_AT_ASYNC.invoke(world, chunkX, chunkZ, true);
+            }
+            return CompletableFuture.completedFuture(world.getChunkAt(chunkX, chunkZ));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static int keyX(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int keyZ(long key) {
+        return (int) key;
+    }
+
+    private static Method findAsyncMethod() {
+        try {
+            return World.class.getMethod("getChunkAtAsync", int.class, int.class, boolean.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package dev.meyba.justWorld.utils;
+
+import dev.meyba.justWorld.other.PlayerSnapshot;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public final class InventoryBenchmark {
+    private static final int WARMUP = 50;
+
+    private InventoryBenchmark() {
+    }
+
+    public record Result(String format, int bytes, long writeNanos, long readNanos, int iterations) {
+        public double getWriteMicros() {
+            return iterations == 0 ? 0 : writeNanos / 1_000.0 / iterations;
+        }
+
+        public double getReadMicros() {
+            return iterations == 0 ? 0 : readNanos / 1_000.0 / iterations;
+        }
+    }
+
+    // The old YAML file layout against the binary one, plain and deflated, for the same snapshot. Timings cover
+    // turning a snapshot into file contents and back, disk access is left out because it is the same for all three.
+    public static Result[] run(PlayerSnapshot snapshot, int iterations) throws IOException {
+        return new Result[]{
+                runYaml(snapshot, iterations),
+                runBinary(snapshot, iterations, false),
+                runBinary(snapshot, iterations, true)
+        };
+    }
+
+    private static Result runYaml(PlayerSnapshot snapshot, int iterations) throws IOException {
+        String contents = null;
+        long writeNanos = 0;
+        long readNanos = 0;
+        try {
+            for (int i = -WARMUP; i < iterations; i++) {
+                long started = System.nanoTime();
+                YamlConfiguration config = new YamlConfiguration();
+                InventorySerializer.writeYaml(config.createSection("SURVIVAL"), snapshot);
+                contents = config.saveToString();
+                long written = System.nanoTime();
+
+                YamlConfiguration loaded = new YamlConfiguration();
+                loaded.loadFromString(contents);
+                InventorySerializer.readYaml(loaded.getConfigurationSection("SURVIVAL"));
+                long read = System.nanoTime();
+
+                if (i >= 0) {
+                    writeNanos += written - started;
+                    readNanos += read - written;
+                }
+            }
+        } catch (InvalidConfigurationException e) {
+            throw new IOException(e);
+        }
+        return new Result("yaml", contents.getBytes(StandardCharsets.UTF_8).length, writeNanos, readNanos, iterations);
+    }
+
+    private static Result runBinary(PlayerSnapshot snapshot, int iterations, boolean compress) throws IOException {
+        byte[] contents = null;
+        long writeNanos = 0;
+        long readNanos = 0;
+        for (int i = -WARMUP; i < iterations; i++) {
+            long started = System.nanoTime();
+            contents = InventorySerializer.toBytes(Map.of("SURVIVAL", InventorySerializer.encode(snapshot)), compress);
+            long written = System.nanoTime();
+
+            InventorySerializer.decode(InventorySerializer.fromBytes(contents).get("SURVIVAL"));
+            long read = System.nanoTime();
+
+            if (i >= 0) {
+                writeNanos += written - started;
+                readNanos += read - written;
+            }
+        }
+        return new Result(compress ? "binary+deflate" : "binary", contents.length, writeNanos, readNanos, iterations);
+    }
+}
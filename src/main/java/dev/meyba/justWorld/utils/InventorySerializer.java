@@ -0,0 +1,333 @@
+package dev.meyba.justWorld.utils;
+
+import dev.meyba.justWorld.other.PlayerSnapshot;
+import org.bukkit.NamespacedKey;
+import org.bukkit.Registry;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionEffect;
+import org.bukkit.potion.PotionEffectType;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Binary per-world inventory files. A file starts with a magic number, the format version and a flags byte, followed
+// by the (optionally deflated) entries. Each entry is one gamemode's snapshot, stored length-prefixed so entries for
+// other gamemodes are carried over on save without decoding their items.
+public final class InventorySerializer {
+    public static final String EXTENSION = ".dat";
+    public static final String LEGACY_EXTENSION = ".yml";
+
+    private static final int MAGIC = 0x4A57494E;
+    private static final int VERSION = 1;
+    private static final int FLAG_DEFLATE = 1;
+
+    private InventorySerializer() {
+    }
+
+    public static Map<String, byte[]> readFile(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    // Written next to the target first and moved over it, so a crash never leaves a half written file
+    public static void writeFile(File file, Map<String, byte[]> entries, boolean compress) throws IOException {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+            write(out, entries, compress);
+        }
+
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static Map<String, byte[]> fromBytes(byte[] data) throws IOException {
+        return read(new ByteArrayInputStream(data));
+    }
+
+    public static byte[] toBytes(Map<String, byte[]> entries, boolean compress) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        write(bytes, entries, compress);
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, byte[]> read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not an inventory file");
+        }
+        int version = in.readUnsignedByte();
+        if (version > VERSION) {
+            throw new IOException("Inventory format version " + version + " is newer than supported version " + VERSION);
+        }
+        int flags = in.readUnsignedByte();
+
+        DataInputStream body = (flags & FLAG_DEFLATE) != 0
+                ? new DataInputStream(new BufferedInputStream(new InflaterInputStream(in)))
+                : in;
+        int count = readVarInt(body);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = body.readUTF();
+            byte[] data = new byte[readVarInt(body)];
+            body.readFully(data);
+            entries.put(key, data);
+        }
+        return entries;
+    }
+
+    private static void write(OutputStream stream, Map<String, byte[]> entries, boolean compress) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(compress ? FLAG_DEFLATE : 0);
+
+        Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+        try {
+            DeflaterOutputStream deflated = compress ? new DeflaterOutputStream(out, deflater) : null;
+            DataOutputStream body = compress ? new DataOutputStream(deflated) : out;
+            writeVarInt(body, entries.size());
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                body.writeUTF(entry.getKey());
+                writeVarInt(body, entry.getValue().length);
+                body.write(entry.getValue());
+            }
+            body.flush();
+            if (deflated != null) {
+                deflated.finish();
+            }
+            out.flush();
+        } finally {
+            if (deflater != null) {
+                deflater.end();
+            }
+        }
+    }
+
+    public static byte[] encode(PlayerSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (BukkitObjectOutputStream out = new BukkitObjectOutputStream(bytes)) {
+            out.writeDouble(snapshot.health());
+            out.writeDouble(snapshot.maxHealth());
+            writeVarInt(out, snapshot.food());
+            out.writeFloat(snapshot.saturation());
+            out.writeFloat(snapshot.exp());
+            writeVarInt(out, snapshot.level());
+
+            writeVarInt(out, snapshot.effects().size());
+            for (PotionEffect effect : snapshot.effects()) {
+                out.writeUTF(effect.getType().getKey().getKey());
+                writeVarInt(out, zigZag(effect.getDuration()));
+                writeVarInt(out, effect.getAmplifier());
+                out.writeByte((effect.isAmbient() ? 1 : 0) | (effect.hasParticles() ? 2 : 0));
+            }
+
+            writeItems(out, snapshot.inventory());
+            writeItems(out, snapshot.armor());
+            writeItems(out, snapshot.offhand() == null ? null : new ItemStack[]{snapshot.offhand()});
+            writeItems(out, snapshot.enderChest());
+        }
+        return bytes.toByteArray();
+    }
+
+    public static PlayerSnapshot decode(byte[] data) throws IOException {
+        try (BukkitObjectInputStream in = new BukkitObjectInputStream(new ByteArrayInputStream(data))) {
+            double health = in.readDouble();
+            double maxHealth = in.readDouble();
+            int food = readVarInt(in);
+            float saturation = in.readFloat();
+            float exp = in.readFloat();
+            int level = readVarInt(in);
+
+            int effectCount = readVarInt(in);
+            List<PotionEffect> effects = new ArrayList<>(effectCount);
+            for (int i = 0; i < effectCount; i++) {
+                String typeName = in.readUTF();
+                int duration = unZigZag(readVarInt(in));
+                int amplifier = readVarInt(in);
+                int flags = in.readUnsignedByte();
+                PotionEffectType type = Registry.EFFECT.get(NamespacedKey.minecraft(typeName));
+                if (type != null) {
+                    effects.add(new PotionEffect(type, duration, amplifier, (flags & 1) != 0, (flags & 2) != 0));
+                }
+            }
+
+            ItemStack[] inventory = readItems(in);
+            ItemStack[] armor = readItems(in);
+            ItemStack[] offhand = readItems(in);
+            ItemStack[] enderChest = readItems(in);
+            return new PlayerSnapshot(inventory, armor, offhand == null ? null : offhand[0], enderChest,
+                    health, maxHealth, food, saturation, exp, level, effects);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown item class in inventory data", e);
+        }
+    }
+
+    // Every gamemode section of a YAML file as binary entries, used to migrate old files when they are first read
+    public static Map<String, byte[]> convertYaml(ConfigurationSection config) throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        if (config.contains("inventory")) {
+            entries.put("", encode(readYaml(config)));
+        }
+        for (String key : config.getKeys(false)) {
+            ConfigurationSection section = config.getConfigurationSection(key);
+            if (section != null && section.contains("inventory")) {
+                entries.put(key, encode(readYaml(section)));
+            }
+        }
+        return entries;
+    }
+
+    public static void writeYaml(ConfigurationSection section, PlayerSnapshot snapshot) {
+        section.set("inventory", snapshot.inventory());
+        section.set("armor", snapshot.armor());
+        section.set("offhand", snapshot.offhand());
+        section.set("enderchest", snapshot.enderChest());
+
+        section.set("health", snapshot.health());
+        section.set("max-health", snapshot.maxHealth());
+        section.set("food", snapshot.food());
+        section.set("saturation", snapshot.saturation());
+        section.set("exp", snapshot.exp());
+        section.set("level", snapshot.level());
+
+        List<Map<String, Object>> effects = new ArrayList<>();
+        for (PotionEffect effect : snapshot.effects()) {
+            Map<String, Object> effectData = new HashMap<>();
+            effectData.put("type", effect.getType().getKey().getKey());
+            effectData.put("duration", effect.getDuration());
+            effectData.put("amplifier", effect.getAmplifier());
+            effectData.put("ambient", effect.isAmbient());
+            effectData.put("particles", effect.hasParticles());
+            effects.add(effectData);
+        }
+        section.set("effects", effects);
+    }
+
+    public static PlayerSnapshot readYaml(ConfigurationSection section) {
+        List<PotionEffect> effects = new ArrayList<>();
+        for (Map<?, ?> effectData : section.getMapList("effects")) {
+            try {
+                String typeName = (String) effectData.get("type");
+                PotionEffectType type = Registry.EFFECT.get(
+                        NamespacedKey.minecraft(typeName.toLowerCase()));
+                if (type != null) {
+                    int duration = ((Number) effectData.get("duration")).intValue();
+                    int amplifier = ((Number) effectData.get("amplifier")).intValue();
+                    Object ambientObj = effectData.get("ambient");
+                    Object particlesObj = effectData.get("particles");
+                    boolean ambient = ambientObj instanceof Boolean ? (Boolean) ambientObj : false;
+                    boolean particles = particlesObj instanceof Boolean ? (Boolean) particlesObj : true;
+                    effects.add(new PotionEffect(type, duration, amplifier, ambient, particles));
+                }
+            } catch (Exception ignored) {}
+        }
+
+        return new PlayerSnapshot(
+                toArray(section.getList("inventory")),
+                toArray(section.getList("armor")),
+                section.getItemStack("offhand"),
+                toArray(section.getList("enderchest")),
+                section.getDouble("health", 20.0),
+                section.getDouble("max-health", 20.0),
+                section.getInt("food", 20),
+                (float) section.getDouble("saturation", 5.0),
+                (float) section.getDouble("exp", 0),
+                section.getInt("level", 0),
+                effects);
+    }
+
+    // Only occupied slots are written, as slot index and item
+    private static void writeItems(ObjectOutputStream out, ItemStack[] items) throws IOException {
+        if (items == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+
+        int occupied = 0;
+        for (ItemStack item : items) {
+            if (item != null) {
+                occupied++;
+            }
+        }
+
+        writeVarInt(out, items.length + 1);
+        writeVarInt(out, occupied);
+        for (int slot = 0; slot < items.length; slot++) {
+            if (items[slot] != null) {
+                writeVarInt(out, slot);
+                out.writeObject(items[slot]);
+            }
+        }
+    }
+
+    private static ItemStack[] readItems(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        int length = readVarInt(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+
+        ItemStack[] items = new ItemStack[length];
+        int occupied = readVarInt(in);
+        for (int i = 0; i < occupied; i++) {
+            int slot = readVarInt(in);
+            Object item = in.readObject();
+            if (slot < length && item instanceof ItemStack stack) {
+                items[slot] = stack;
+            }
+        }
+        return items;
+    }
+
+    private static ItemStack[] toArray(List<?> list) {
+        if (list == null) {
+            return null;
+        }
+        ItemStack[] items = new ItemStack[list.size()];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = list.get(i) instanceof ItemStack item ? item : null;
+        }
+        return items;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("VarInt too long");
+    }
+
+    // Infinite effects have a duration of -1, zigzag keeps small negative numbers to one byte
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,50 @@
+package dev.meyba.justWorld.utils;
+
+import org.bukkit.World;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.BufferedInputStream;
+import java.util.BitSet;
+
+public final class RegionUtil {
+    public static final int REGION_SIZE = 32;
+    public static final int REGION_CHUNKS = REGION_SIZE * REGION_SIZE;
+
+    private RegionUtil() {
+    }
+
+    public static File getRegionFolder(World world) {
+        return switch (world.getEnvironment()) {
+            case NETHER -> new File(world.getWorldFolder(), "DIM-1/region");
+            case THE_END -> new File(world.getWorldFolder(), "DIM1/region");
+            default -> new File(world.getWorldFolder(), "region");
+        };
+    }
+
+    // Reads only the 4 KiB location table of an .mca file, a non-zero entry means the chunk is stored on disk
+    public static BitSet readStoredChunks(File regionFolder, int regionX, int regionZ) {
+        BitSet stored = new BitSet(REGION_CHUNKS);
+        File regionFile = new File(regionFolder, "r." + regionX + "." + regionZ + ".mca");
+        if (!regionFile.isFile()) {
+            return stored;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(regionFile), 4096))) {
+            for (int i = 0; i < REGION_CHUNKS; i++) {
+                if (in.readInt() != 0) {
+                    stored.set(i);
+                }
+            }
+        } catch (IOException ignored) {
+        }
+
+        return stored;
+    }
+
+    public static int localIndex(int chunkX, int chunkZ) {
+        return (chunkX & (REGION_SIZE - 1)) + (chunkZ & (REGION_SIZE - 1)) * REGION_SIZE;
+    }
+}
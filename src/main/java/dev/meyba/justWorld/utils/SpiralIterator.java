@@ -0,0 +1,108 @@
+package dev.meyba.justWorld.utils;
+
+public class SpiralIterator {
+    private final int centerX;
+    private final int centerZ;
+    private final long total;
+
+    private int offsetX;
+    private int offsetZ;
+    private int stepX;
+    private int stepZ;
+    private long index;
+
+    public SpiralIterator(int centerX, int centerZ, int radius) {
+        this.centerX = centerX;
+        this.centerZ = centerZ;
+        this.total = (radius * 2L + 1) * (radius * 2L + 1);
+        this.stepX = 0;
+        this.stepZ = -1;
+    }
+
+    public boolean hasNext() {
+        return index < total;
+    }
+
+    public long getIndex() {
+        return index;
+    }
+
+    public int getX() {
+        return centerX + offsetX;
+    }
+
+    public int getZ() {
+        return centerZ + offsetZ;
+    }
+
+    // Moves to the next cell of a square spiral, turning at each corner
+    public void next() {
+        if (offsetX == offsetZ || (offsetX < 0 && offsetX == -offsetZ) || (offsetX > 0 && offsetX == 1 - offsetZ)) {
+            int turn = stepX;
+            stepX = -stepZ;
+            stepZ = turn;
+        }
+        offsetX += stepX;
+        offsetZ += stepZ;
+        index++;
+    }
+
+    // Jumps straight to a spiral index: ring k starts at (2k - 1)^2 and has four sides of 2k cells
+    public void seek(long target) {
+        index = Math.max(0, Math.min(total, target));
+        if (index == 0) {
+            offsetX = 0;
+            offsetZ = 0;
+            stepX = 0;
+            stepZ = -1;
+            return;
+        }
+
+        int ring = ringOf(index);
+        long position = index - ringStart(ring);
+        int side = (int) (position / (2L * ring));
+        int step = (int) (position % (2L * ring));
+
+        switch (side) {
+            case 0 -> {
+                offsetX = ring;
+                offsetZ = -ring + 1 + step;
+                stepX = step == 0 ? 1 : 0;
+                stepZ = step == 0 ? 0 : 1;
+            }
+            case 1 -> {
+                offsetX = ring - 1 - step;
+                offsetZ = ring;
+                stepX = -1;
+                stepZ = 0;
+            }
+            case 2 -> {
+                offsetX = -ring;
+                offsetZ = ring - 1 - step;
+                stepX = 0;
+                stepZ = -1;
+            }
+            default -> {
+                offsetX = -ring + 1 + step;
+                offsetZ = -ring;
+                stepX = 1;
+                stepZ = 0;
+            }
+        }
+    }
+
+    public static int ringOf(long index) {
+        if (index <= 0) {
+            return 0;
+        }
+
+        int ring = (int) ((Math.sqrt(index) + 1) / 2);
+        while (ringStart(ring + 1) <= index) ring++;
+        while (ring > 0 && ringStart(ring) > index) ring--;
+        return ring;
+    }
+
+    public static long ringStart(int ring) {
+        return ring == 0 ? 0 : (2L * ring - 1) * (2L * ring - 1);
+    }
+}
@@ -0,0 +1,48 @@
+package dev.meyba.justWorld.utils;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// A fixed set of single-thread lanes. Everything submitted for one key runs on the same lane in submission order,
+// while different keys are spread over the lanes and run in parallel.
+public final class StripedExecutor {
+    private final ExecutorService[] lanes;
+
+    public StripedExecutor(String name, int lanes) {
+        this.lanes = new ExecutorService[Math.max(1, lanes)];
+        for (int i = 0; i < this.lanes.length; i++) {
+            String threadName = name + "-" + i;
+            this.lanes[i] = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, threadName));
+        }
+    }
+
+    public Executor lane(UUID key) {
+        return lanes[Math.floorMod(key.hashCode(), lanes.length)];
+    }
+
+    public void execute(UUID key, Runnable task) {
+        lane(key).execute(task);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    // False when tasks were still running at the timeout
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
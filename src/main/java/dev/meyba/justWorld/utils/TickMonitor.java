@@ -0,0 +1,57 @@
+package dev.meyba.justWorld.utils;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+
+import java.lang.reflect.Method;
+
+public class TickMonitor {
+    private static final double SMOOTHING = 0.1;
+    private static final double TICK_MS = 50.0;
+
+    private final Method averageTickTime;
+    private long lastTick;
+    private double averageInterval;
+
+    public TickMonitor() {
+        this.averageTickTime = findTickTimeMethod();
+        this.averageInterval = TICK_MS;
+    }
+
+    public void tick() {
+        long now = System.nanoTime();
+        if (lastTick != 0) {
+            double interval = (now - lastTick) / 1_000_000.0;
+            averageInterval += (interval - averageInterval) * SMOOTHING;
+        }
+        lastTick = now;
+    }
+
+    public void reset() {
+        lastTick = 0;
+        averageInterval = TICK_MS;
+    }
+
+    // Without Paper's tick time we only see the interval between ticks, which never drops below 50ms
+    public boolean isExact() {
+        return averageTickTime != null;
+    }
+
+    public double getMspt() {
+        if (averageTickTime != null) {
+            try {
+                return (double) averageTickTime.invoke(Bukkit.getServer());
+            } catch (Exception ignored) {
+            }
+        }
+        return averageInterval;
+    }
+
+    private static Method findTickTimeMethod() {
+        try {
+            return Server.class.getMethod("getAverageTickTime");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
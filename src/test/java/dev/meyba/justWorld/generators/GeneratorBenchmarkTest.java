@@ -0,0 +1,81 @@
+package dev.meyba.justWorld.generators;
+
+import dev.meyba.justWorld.utils.GeneratorBenchmark;
+import dev.meyba.justWorld.utils.TestWorldInfo;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.generator.WorldInfo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Chunks per second, allocation per chunk and thread scaling of every built-in generator, so generator changes can
+// be compared between local builds. Run with ./gradlew benchmark, -Dbenchmark.chunks=<n> and -Dbenchmark.threads=<n>
+// change the chunk count and the largest thread count.
+@Tag("benchmark")
+class GeneratorBenchmarkTest {
+    private static final WorldInfo WORLD = new TestWorldInfo("benchmark", 8_472_316_905L);
+
+    @Test
+    void benchmarkGenerators() {
+        int chunks = Integer.getInteger("benchmark.chunks", 4096);
+        int maxThreads = Integer.getInteger("benchmark.threads", Runtime.getRuntime().availableProcessors());
+        Map<String, ChunkGenerator> generators = generators();
+
+        System.out.printf(Locale.ROOT, "%d chunks per run, allocation %s%n", chunks,
+                GeneratorBenchmark.isAllocationSupported() ? "counted" : "not counted by this JVM");
+
+        // One untimed round over all generators first, so code they share is compiled for all of them before
+        // any is timed and the first generator is not measured against a different JIT profile than the last
+        for (ChunkGenerator generator : generators.values()) {
+            GeneratorBenchmark.run(generator, WORLD, chunks);
+        }
+
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (Map.Entry<String, ChunkGenerator> entry : generators.entrySet()) {
+            GeneratorBenchmark.Result result = GeneratorBenchmark.run(entry.getValue(), WORLD, chunks);
+            rates.put(entry.getKey(), result.getChunksPerSecond());
+            System.out.printf(Locale.ROOT, "%-12s %10.0f chunks/s %8.2f us/chunk %8s/chunk%n", entry.getKey(),
+                    result.getChunksPerSecond(), result.getMicrosPerChunk(), formatBytes(result.getBytesPerChunk()));
+        }
+
+        // The setRegion fill against the per-block fill it replaced
+        double legacyRate = rates.get(GeneratorBenchmark.LEGACY_FLAT);
+        System.out.printf(Locale.ROOT, "flat fills chunks %.2fx as fast as %s%n",
+                legacyRate == 0 ? 0 : rates.get("flat") / legacyRate, GeneratorBenchmark.LEGACY_FLAT);
+
+        for (Map.Entry<String, ChunkGenerator> entry : generators.entrySet()) {
+            List<GeneratorBenchmark.ParallelResult> runs = GeneratorBenchmark.runScaling(entry.getValue(), WORLD, chunks, maxThreads);
+            double baseRate = runs.get(0).result().getChunksPerSecond();
+            for (GeneratorBenchmark.ParallelResult parallel : runs) {
+                GeneratorBenchmark.Result result = parallel.result();
+                System.out.printf(Locale.ROOT, "%-12s %3d threads %10.0f chunks/s %6.2fx %8s/chunk %d mismatches%n",
+                        entry.getKey(), parallel.threads(), result.getChunksPerSecond(),
+                        baseRate == 0 ? 0 : result.getChunksPerSecond() / baseRate,
+                        formatBytes(result.getBytesPerChunk()), parallel.mismatches());
+            }
+        }
+    }
+
+    private static Map<String, ChunkGenerator> generators() {
+        Map<String, ChunkGenerator> generators = new LinkedHashMap<>();
+        generators.put("void", new VoidWorldGenerator(Biome.PLAINS));
+        ChunkGenerator flat = new FlatWorldGenerator(FlatWorldGenerator.DEFAULT_LAYERS, Biome.PLAINS);
+        generators.put("flat", flat);
+        generators.put(GeneratorBenchmark.LEGACY_FLAT, GeneratorBenchmark.legacyFlat(flat.getDefaultBiomeProvider(WORLD)));
+        generators.put("island", new IslandWorldGenerator(IslandStructure.EMPTY, Biome.PLAINS));
+        generators.put("terrain", new TerrainWorldGenerator(Biome.PLAINS));
+        return generators;
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "?";
+        }
+        return bytes < 1024 ? bytes + "B" : String.format(Locale.ROOT, "%.1fKB", bytes / 1024.0);
+    }
+}
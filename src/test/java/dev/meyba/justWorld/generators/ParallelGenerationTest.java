@@ -0,0 +1,81 @@
+package dev.meyba.justWorld.generators;
+
+import dev.meyba.justWorld.utils.ArrayChunkData;
+import dev.meyba.justWorld.utils.GeneratorBenchmark;
+import dev.meyba.justWorld.utils.TestWorldInfo;
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.generator.WorldInfo;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs the generators declared parallel capable from many threads at once against array chunk data and compares
+// every chunk with a serial run, without a server
+class ParallelGenerationTest {
+    private static final int CHUNKS = 2048;
+    private static final int THREADS = 16;
+
+    private static final WorldInfo WORLD = new TestWorldInfo("parallel-test", 8_472_316_905L);
+
+    @Test
+    void generatorsDeclareParallelCapable() {
+        for (Map.Entry<String, ChunkGenerator> entry : generators().entrySet()) {
+            assertTrue(entry.getValue().isParallelCapable(), entry.getKey());
+        }
+    }
+
+    @Test
+    void parallelOutputMatchesSerialOutput() {
+        for (Map.Entry<String, ChunkGenerator> entry : generators().entrySet()) {
+            GeneratorBenchmark.ParallelResult result = GeneratorBenchmark.runParallel(entry.getValue(), WORLD, CHUNKS, THREADS);
+            assertEquals(0, result.mismatches(), entry.getKey() + " differed on " + THREADS + " threads");
+        }
+    }
+
+    @Test
+    void flatFillsDefaultLayersFromTheBottom() {
+        ArrayChunkData chunkData = new ArrayChunkData(WORLD);
+        new FlatWorldGenerator().generateNoise(WORLD, new Random(0), 0, 0, chunkData);
+
+        for (int x = 0; x < 16; x++) {
+            for (int z = 0; z < 16; z++) {
+                assertEquals(Material.AIR, chunkData.getType(x, -1, z));
+                assertEquals(Material.BEDROCK, chunkData.getType(x, 0, z));
+                assertEquals(Material.DIRT, chunkData.getType(x, 1, z));
+                assertEquals(Material.DIRT, chunkData.getType(x, 2, z));
+                assertEquals(Material.GRASS_BLOCK, chunkData.getType(x, 3, z));
+                assertEquals(Material.AIR, chunkData.getType(x, 4, z));
+            }
+        }
+    }
+
+    @Test
+    void legacyFlatBaselineMatchesFlat() {
+        ArrayChunkData flat = new ArrayChunkData(WORLD);
+        ArrayChunkData legacy = new ArrayChunkData(WORLD);
+        new FlatWorldGenerator().generateNoise(WORLD, new Random(0), 0, 0, flat);
+        GeneratorBenchmark.legacyFlat(null).generateNoise(WORLD, new Random(0), 0, 0, legacy);
+
+        for (int y = WORLD.getMinHeight(); y < WORLD.getMaxHeight(); y++) {
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    assertEquals(flat.getType(x, y, z), legacy.getType(x, y, z));
+                }
+            }
+        }
+    }
+
+    private static Map<String, ChunkGenerator> generators() {
+        return Map.of(
+                "void", new VoidWorldGenerator(Biome.PLAINS),
+                "flat", new FlatWorldGenerator(FlatWorldGenerator.DEFAULT_LAYERS, Biome.PLAINS),
+                "flat-build", new FlatWorldGenerator("minecraft:bedrock,59*minecraft:stone,3*minecraft:dirt,minecraft:grass_block", Biome.PLAINS),
+                "terrain", new TerrainWorldGenerator(Biome.PLAINS));
+    }
+}
@@ -0,0 +1,145 @@
+package dev.meyba.justWorld.utils;
+
+import org.bukkit.Material;
+import org.bukkit.block.Biome;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.generator.WorldInfo;
+import org.bukkit.material.MaterialData;
+
+// Chunk data held in plain arrays, so generators can run without a server and from any thread. Out of range
+// writes are ignored and regions are clipped to the chunk like the server's chunk data does. Blocks set by material
+// have no block data here, and biomes are not known at all.
+public final class ArrayChunkData implements ChunkGenerator.ChunkData {
+    private final int minHeight;
+    private final int maxHeight;
+    private final Material[] types;
+    private BlockData[] blockData;
+
+    public ArrayChunkData(WorldInfo worldInfo) {
+        this(worldInfo.getMinHeight(), worldInfo.getMaxHeight());
+    }
+
+    public ArrayChunkData(int minHeight, int maxHeight) {
+        this.minHeight = minHeight;
+        this.maxHeight = maxHeight;
+        this.types = new Material[(maxHeight - minHeight) << 8];
+    }
+
+    @Override
+    public int getMinHeight() {
+        return minHeight;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return maxHeight;
+    }
+
+    @Override
+    public Biome getBiome(int x, int y, int z) {
+        throw new UnsupportedOperationException("Detached chunk data has no biomes");
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, Material material) {
+        set(x, y, z, material, null);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setBlock(int x, int y, int z, MaterialData material) {
+        set(x, y, z, material.getItemType(), null);
+    }
+
+    @Override
+    public void setBlock(int x, int y, int z, BlockData blockData) {
+        set(x, y, z, blockData.getMaterial(), blockData);
+    }
+
+    @Override
+    public void setRegion(int xMin, int yMin, int zMin, int xMax, int yMax, int zMax, Material material) {
+        fill(xMin, yMin, zMin, xMax, yMax, zMax, material, null);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void setRegion(int xMin, int yMin, int zMin, int xMax, int yMax, int zMax, MaterialData material) {
+        fill(xMin, yMin, zMin, xMax, yMax, zMax, material.getItemType(), null);
+    }
+
+    @Override
+    public void setRegion(int xMin, int yMin, int zMin, int xMax, int yMax, int zMax, BlockData blockData) {
+        fill(xMin, yMin, zMin, xMax, yMax, zMax, blockData.getMaterial(), blockData);
+    }
+
+    @Override
+    public Material getType(int x, int y, int z) {
+        int index = index(x, y, z);
+        Material type = index < 0 ? null : types[index];
+        return type == null ? Material.AIR : type;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public MaterialData getTypeAndData(int x, int y, int z) {
+        return new MaterialData(getType(x, y, z));
+    }
+
+    // Null for blocks set by material only
+    @Override
+    public BlockData getBlockData(int x, int y, int z) {
+        int index = index(x, y, z);
+        return index < 0 || blockData == null ? null : blockData[index];
+    }
+
+    @Override
+    @Deprecated
+    public byte getData(int x, int y, int z) {
+        return 0;
+    }
+
+    private void set(int x, int y, int z, Material material, BlockData data) {
+        int index = index(x, y, z);
+        if (index < 0) {
+            return;
+        }
+
+        types[index] = material;
+        if (data != null || blockData != null) {
+            blockData()[index] = data;
+        }
+    }
+
+    private void fill(int xMin, int yMin, int zMin, int xMax, int yMax, int zMax, Material material, BlockData data) {
+        xMin = Math.max(xMin, 0);
+        yMin = Math.max(yMin, minHeight);
+        zMin = Math.max(zMin, 0);
+        xMax = Math.min(xMax, 16);
+        yMax = Math.min(yMax, maxHeight);
+        zMax = Math.min(zMax, 16);
+
+        for (int y = yMin; y < yMax; y++) {
+            for (int z = zMin; z < zMax; z++) {
+                for (int x = xMin; x < xMax; x++) {
+                    set(x, y, z, material, data);
+                }
+            }
+        }
+    }
+
+    private BlockData[] blockData() {
+        if (blockData == null) {
+            blockData = new BlockData[types.length];
+        }
+        return blockData;
+    }
+
+    // Y major like chunk sections, -1 outside the chunk
+    private int index(int x, int y, int z) {
+        if (x < 0 || x > 15 || z < 0 || z > 15 || y < minHeight || y >= maxHeight) {
+            return -1;
+        }
+        return ((y - minHeight) << 8) | (z << 4) | x;
+    }
+}
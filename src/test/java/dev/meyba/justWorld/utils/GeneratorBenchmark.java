@@ -0,0 +1,232 @@
+package dev.meyba.justWorld.utils;
+
+import org.bukkit.Material;
+import org.bukkit.generator.BiomeProvider;
+import org.bukkit.generator.ChunkGenerator;
+import org.bukkit.generator.WorldInfo;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class GeneratorBenchmark {
+    public static final String LEGACY_FLAT = "flat-legacy";
+
+    // HotSpot and OpenJ9 both expose per-thread allocation counters through the com.sun extension
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadBean();
+
+    private GeneratorBenchmark() {
+    }
+
+    public record Result(int chunks, long nanos, long allocatedBytes) {
+        public double getChunksPerSecond() {
+            return nanos == 0 ? 0 : chunks / (nanos / 1_000_000_000.0);
+        }
+
+        public double getMicrosPerChunk() {
+            return chunks == 0 ? 0 : nanos / 1_000.0 / chunks;
+        }
+
+        // Bytes the generator allocated per chunk, -1 when the JVM does not count allocations
+        public long getBytesPerChunk() {
+            return allocatedBytes < 0 || chunks == 0 ? -1 : allocatedBytes / chunks;
+        }
+    }
+
+    // The result holds the generation time of the slowest thread, so its rate is the combined throughput
+    public record ParallelResult(Result result, int threads, int mismatches) {
+    }
+
+    // The flat fill from before layer presets, one setBlock per block for the default four layers. It is benchmarked
+    // next to flat with the same biome provider, so the two numbers differ only in how the layers are filled.
+    public static ChunkGenerator legacyFlat(BiomeProvider biomeProvider) {
+        return new ChunkGenerator() {
+            @Override
+            public void generateNoise(WorldInfo worldInfo, Random random, int chunkX, int chunkZ, ChunkData chunkData) {
+                for (int x = 0; x < 16; x++) {
+                    for (int z = 0; z < 16; z++) {
+                        chunkData.setBlock(x, 0, z, Material.BEDROCK);
+                        chunkData.setBlock(x, 1, z, Material.DIRT);
+                        chunkData.setBlock(x, 2, z, Material.DIRT);
+                        chunkData.setBlock(x, 3, z, Material.GRASS_BLOCK);
+                    }
+                }
+            }
+
+            @Override
+            public BiomeProvider getDefaultBiomeProvider(WorldInfo worldInfo) {
+                return biomeProvider;
+            }
+        };
+    }
+
+    public static boolean isAllocationSupported() {
+        return THREADS != null;
+    }
+
+    // Runs the generator's own noise step into array chunk data plus its biome lookups, the world is used for its
+    // seed and height range. Server-side work such as vanilla biome noise or lighting is not included.
+    public static Result run(ChunkGenerator generator, WorldInfo world, int chunks) {
+        Random random = new Random(world.getSeed());
+        BiomeProvider biomeProvider = generator.getDefaultBiomeProvider(world);
+        int side = (int) Math.ceil(Math.sqrt(chunks));
+
+        // A full untimed pass first, so the JIT has compiled the generator before it is timed
+        for (int i = 0; i < chunks; i++) {
+            generateChunk(generator, biomeProvider, world, random, i % side, i / side, new ArrayChunkData(world));
+        }
+
+        long nanos = 0;
+        long allocated = 0;
+        for (int i = 0; i < chunks; i++) {
+            ChunkGenerator.ChunkData chunkData = new ArrayChunkData(world);
+            long allocatedBefore = allocatedBytes();
+            long started = System.nanoTime();
+            generateChunk(generator, biomeProvider, world, random, i % side, i / side, chunkData);
+            nanos += System.nanoTime() - started;
+            allocated += allocatedBytes() - allocatedBefore;
+        }
+        return new Result(chunks, nanos, THREADS == null ? -1 : allocated);
+    }
+
+    // Generates every chunk once serially as a reference, then again from several threads at once and compares the
+    // block output. Any difference means the generator shares mutable state and must not be parallel capable.
+    // Chunks go into array chunk data, so this needs no running server and only the world's seed and heights.
+    public static ParallelResult runParallel(ChunkGenerator generator, WorldInfo world, int chunks, int threads) {
+        BiomeProvider biomeProvider = generator.getDefaultBiomeProvider(world);
+        int side = (int) Math.ceil(Math.sqrt(chunks));
+
+        long[] reference = new long[chunks];
+        for (int i = 0; i < chunks; i++) {
+            ChunkGenerator.ChunkData chunkData = new ArrayChunkData(world);
+            generateChunk(generator, biomeProvider, world, chunkRandom(world, i % side, i / side), i % side, i / side, chunkData);
+            reference[i] = fingerprint(chunkData);
+        }
+
+        long[] output = new long[chunks];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong allocated = new AtomicLong();
+        AtomicLong slowestThread = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            // Threads start together and each one times only its generateChunk calls, chunk data creation and
+            // fingerprinting stay outside. The slowest thread stands for the wall-clock time of the whole run.
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                int first = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long nanos = 0;
+                    long threadAllocated = 0;
+                    for (int i = first; i < chunks; i += threads) {
+                        int chunkX = i % side;
+                        int chunkZ = i / side;
+                        try {
+                            ChunkGenerator.ChunkData chunkData = new ArrayChunkData(world);
+                            Random random = chunkRandom(world, chunkX, chunkZ);
+                            long allocatedBefore = allocatedBytes();
+                            long started = System.nanoTime();
+                            generateChunk(generator, biomeProvider, world, random, chunkX, chunkZ, chunkData);
+                            nanos += System.nanoTime() - started;
+                            threadAllocated += allocatedBytes() - allocatedBefore;
+                            output[i] = fingerprint(chunkData);
+                        } catch (RuntimeException e) {
+                            // Counted as a mismatch below
+                            output[i] = ~reference[i];
+                        }
+                    }
+                    allocated.addAndGet(threadAllocated);
+                    slowestThread.accumulateAndGet(nanos, Math::max);
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (Exception e) {
+            failures.incrementAndGet();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Compared only after the timed part, the futures make every thread's writes visible here
+        int mismatches = failures.get();
+        for (int i = 0; i < chunks; i++) {
+            if (output[i] != reference[i]) {
+                mismatches++;
+            }
+        }
+        return new ParallelResult(new Result(chunks, slowestThread.get(), THREADS == null ? -1 : allocated.get()), threads,
+                Math.min(chunks, mismatches));
+    }
+
+    // Thread counts doubling from one up to the given maximum, which is always included last
+    public static List<ParallelResult> runScaling(ChunkGenerator generator, WorldInfo world, int chunks, int maxThreads) {
+        List<ParallelResult> results = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            results.add(runParallel(generator, world, chunks, threads));
+        }
+        results.add(runParallel(generator, world, chunks, maxThreads));
+        return results;
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                    && bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                return bean;
+            }
+        } catch (LinkageError | UnsupportedOperationException ignored) {
+        }
+        return null;
+    }
+
+    // Seeded per chunk like the server does, so the output does not depend on generation order
+    private static Random chunkRandom(WorldInfo world, int chunkX, int chunkZ) {
+        return new Random(world.getSeed() ^ ChunkUtil.key(chunkX, chunkZ));
+    }
+
+    private static long fingerprint(ChunkGenerator.ChunkData chunkData) {
+        long hash = 1;
+        for (int y = chunkData.getMinHeight(); y < chunkData.getMaxHeight(); y++) {
+            for (int x = 0; x < 16; x++) {
+                for (int z = 0; z < 16; z++) {
+                    hash = hash * 31 + chunkData.getType(x, y, z).ordinal();
+                }
+            }
+        }
+        return hash;
+    }
+
+    private static void generateChunk(ChunkGenerator generator, BiomeProvider biomeProvider, WorldInfo world, Random random,
+                                      int chunkX, int chunkZ, ChunkGenerator.ChunkData chunkData) {
+        generator.generateNoise(world, random, chunkX, chunkZ, chunkData);
+        if (biomeProvider == null) {
+            return;
+        }
+
+        // The server samples biomes once per 4x4x4 cell
+        for (int y = world.getMinHeight(); y < world.getMaxHeight(); y += 4) {
+            for (int x = 0; x < 16; x += 4) {
+                for (int z = 0; z < 16; z += 4) {
+                    biomeProvider.getBiome(world, (chunkX << 4) + x, y, (chunkZ << 4) + z);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package dev.meyba.justWorld.utils;
+
+import org.bukkit.World;
+import org.bukkit.generator.WorldInfo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// An overworld-sized world for running generators without a server
+public final class TestWorldInfo implements WorldInfo {
+    private final String name;
+    private final UUID id;
+    private final long seed;
+
+    public TestWorldInfo(String name, long seed) {
+        this.name = name;
+        this.id = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        this.seed = seed;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public UUID getUID() {
+        return id;
+    }
+
+    @Override
+    public World.Environment getEnvironment() {
+        return World.Environment.NORMAL;
+    }
+
+    @Override
+    public long getSeed() {
+        return seed;
+    }
+
+    @Override
+    public int getMinHeight() {
+        return -64;
+    }
+
+    @Override
+    public int getMaxHeight() {
+        return 320;
+    }
+}